@@ -0,0 +1,30 @@
+package com.example.classcount;
+
+import com.example.classcount.service.AttendanceCounterService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the attendance counters from the raw attendance rows at startup when they have never been
+ * built, or on demand when started with --classcount.counters.rebuild-on-startup=true.
+ */
+@Component
+public class CounterRebuildRunner implements CommandLineRunner {
+
+    private final AttendanceCounterService attendanceCounterService;
+
+    @Value("${classcount.counters.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    public CounterRebuildRunner(AttendanceCounterService attendanceCounterService) {
+        this.attendanceCounterService = attendanceCounterService;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (rebuildOnStartup || attendanceCounterService.needsInitialBuild()) {
+            attendanceCounterService.rebuild();
+        }
+    }
+}
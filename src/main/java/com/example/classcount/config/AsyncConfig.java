@@ -0,0 +1,70 @@
+package com.example.classcount.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    // Set by the virtual profile; the executors keep their bounds but run tasks on virtual threads
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Runs student imports off the request threads. The pool and its queue are bounded so a burst of
+     * uploads cannot pile up unbounded work; submissions beyond the queue are rejected.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor importExecutor(@Value("${classcount.import.threads:2}") int threads,
+                                                 @Value("${classcount.import.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        useThreads(executor, "student-import-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Runs attendance resets in the background, one at a time, so a large year is cleared in small
+     * batches without holding a request thread or the attendance table.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor resetExecutor(@Value("${classcount.reset.queue-capacity:10}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        useThreads(executor, "attendance-reset-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Loads the years of a multi-year export in parallel. Bounded so one export cannot take every
+     * database connection; years beyond the pool wait in the queue.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor exportExecutor(@Value("${classcount.export.threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        useThreads(executor, "attendance-export-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    private void useThreads(ThreadPoolTaskExecutor executor, String namePrefix) {
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name(namePrefix, 1).factory());
+        } else {
+            executor.setThreadNamePrefix(namePrefix);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.classcount.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ATTENDANCE_SUMMARIES = "attendanceSummaries";
+    public static final String CLASSROOMS = "classrooms";
+    public static final String CLASSROOMS_BY_YEAR = "classroomsByYear";
+    public static final String SUBJECTS = "subjects";
+    public static final String USER_DETAILS = "userDetails";
+    public static final String VERIFIED_CREDENTIALS = "verifiedCredentials";
+
+    /**
+     * In-memory caches, each registered up front with its own bounds so the actuator publishes
+     * hit/miss metrics for it (cache.gets tagged result=hit|miss).
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${classcount.cache.attendance-summaries.max-size:500}") long summaryMaxSize,
+                                     @Value("${classcount.cache.attendance-summaries.ttl:1m}") Duration summaryTtl,
+                                     @Value("${classcount.cache.reference-data.max-size:100}") long referenceMaxSize,
+                                     @Value("${classcount.cache.reference-data.ttl:1h}") Duration referenceTtl,
+                                     @Value("${classcount.cache.users.max-size:500}") long userMaxSize,
+                                     @Value("${classcount.cache.users.ttl:10m}") Duration userTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Only the caches registered here exist; an unknown cache name is a programming error
+        cacheManager.setCacheNames(List.of());
+        // Summaries are evicted after each change commits, but a page read just before the commit can still be
+        // stored after the eviction; the TTL bounds how long such a stale page is served
+        cacheManager.registerCustomCache(ATTENDANCE_SUMMARIES, Caffeine.newBuilder()
+                .maximumSize(summaryMaxSize)
+                .expireAfterWrite(summaryTtl)
+                .recordStats()
+                .build());
+        // Reference data is evicted when the app changes it; the TTL picks up edits made directly in the database
+        for (String name : List.of(CLASSROOMS, CLASSROOMS_BY_YEAR, SUBJECTS)) {
+            cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                    .maximumSize(referenceMaxSize)
+                    .expireAfterWrite(referenceTtl)
+                    .recordStats()
+                    .build());
+        }
+        // Login data: a removed user or changed password is at most this stale if the app is bypassed
+        for (String name : List.of(USER_DETAILS, VERIFIED_CREDENTIALS)) {
+            cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                    .maximumSize(userMaxSize)
+                    .expireAfterWrite(userTtl)
+                    .recordStats()
+                    .build());
+        }
+        return cacheManager;
+    }
+}
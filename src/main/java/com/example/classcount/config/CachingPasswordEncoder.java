@@ -0,0 +1,98 @@
+package com.example.classcount.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Wraps the BCrypt encoder so a password that was verified recently is not hashed again.
+ * Only successful checks are remembered, keyed by the stored hash and an HMAC of the raw password
+ * under a key generated at startup, so the cache never holds a password or a reusable digest.
+ * The CPU time of every real hash is recorded in the classcount.password.hashing timer.
+ */
+public class CachingPasswordEncoder implements PasswordEncoder {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final PasswordEncoder delegate;
+    private final Cache verifiedCredentials;
+    private final SecretKeySpec key;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public CachingPasswordEncoder(PasswordEncoder delegate, Cache verifiedCredentials, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.verifiedCredentials = verifiedCredentials;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        this.encodeTimer = hashingTimer(meterRegistry, "encode");
+        this.matchesTimer = hashingTimer(meterRegistry, "matches");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return timeCpu(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        String cacheKey = encodedPassword + ":" + hmac(rawPassword);
+        if (verifiedCredentials.get(cacheKey) != null) {
+            return true;
+        }
+        boolean matches = timeCpu(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+        if (matches) {
+            verifiedCredentials.put(cacheKey, Boolean.TRUE);
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private String hmac(CharSequence rawPassword) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return HexFormat.of().formatHex(mac.doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    // Records the CPU time of the calling thread, which is what a login burst spends on BCrypt
+    private static <T> T timeCpu(Timer timer, Supplier<T> hashing) {
+        long start = THREADS.getCurrentThreadCpuTime();
+        try {
+            return hashing.get();
+        } finally {
+            timer.record(Duration.ofNanos(THREADS.getCurrentThreadCpuTime() - start));
+        }
+    }
+
+    private static Timer hashingTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("classcount.password.hashing")
+                .description("CPU time spent hashing passwords")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -1,12 +1,15 @@
 package com.example.classcount.config;
 
 import com.example.classcount.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -51,16 +54,25 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // BCrypt, skipped for credentials that were verified within the cache TTL
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        return new CachingPasswordEncoder(new BCryptPasswordEncoder(),
+                cacheManager.getCache(CacheConfig.VERIFIED_CREDENTIALS), meterRegistry);
     }
 
+    // Users loaded for login, invalidated by UserController when users are added or deleted
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public UserCache userCache(CacheManager cacheManager) {
+        return new UserDetailsCache(cacheManager.getCache(CacheConfig.USER_DETAILS));
+    }
+
+    @Bean
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder, UserCache userCache) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(customUserDetailsService);
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserCache(userCache);
         return provider;
     }
 }
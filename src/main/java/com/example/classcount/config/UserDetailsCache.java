@@ -0,0 +1,36 @@
+package com.example.classcount.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Keeps loaded users in a Spring cache so repeated logins skip the users table.
+ * Copies go in and out of the cache because the authenticated principal has its
+ * password erased after login, which must not reach the cached instance.
+ */
+public class UserDetailsCache implements UserCache {
+
+    private final Cache cache;
+
+    public UserDetailsCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        UserDetails user = cache.get(username, UserDetails.class);
+        return user != null ? User.withUserDetails(user).build() : null;
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        cache.put(user.getUsername(), User.withUserDetails(user).build());
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        cache.evict(username);
+    }
+}
@@ -1,13 +1,12 @@
 package com.example.classcount.controller;
 
-import com.example.classcount.entity.Attendance;
 import com.example.classcount.entity.Classroom;
-import com.example.classcount.entity.Student;
 import com.example.classcount.entity.Subject;
 import com.example.classcount.repository.AttendanceRepository;
-import com.example.classcount.repository.ClassroomRepository;
-import com.example.classcount.repository.StudentRepository;
 import com.example.classcount.repository.SubjectRepository;
+import com.example.classcount.service.AttendanceService;
+import com.example.classcount.service.ReferenceDataService;
+import com.example.classcount.service.StudentRosterService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -22,22 +21,24 @@ import java.util.Optional;
 @RequestMapping("/attendance")
 public class AttendanceController {
 
-    private final StudentRepository studentRepository;
     private final SubjectRepository subjectRepository;
     private final AttendanceRepository attendanceRepository;
-    private final ClassroomRepository classroomRepository;
+    private final ReferenceDataService referenceDataService;
+    private final StudentRosterService studentRosterService;
+    private final AttendanceService attendanceService;
 
-    public AttendanceController(StudentRepository studentRepository, SubjectRepository subjectRepository, AttendanceRepository attendanceRepository, ClassroomRepository classroomRepository) {
-        this.studentRepository = studentRepository;
+    public AttendanceController(SubjectRepository subjectRepository, AttendanceRepository attendanceRepository, ReferenceDataService referenceDataService, StudentRosterService studentRosterService, AttendanceService attendanceService) {
         this.subjectRepository = subjectRepository;
         this.attendanceRepository = attendanceRepository;
-        this.classroomRepository = classroomRepository;
+        this.referenceDataService = referenceDataService;
+        this.studentRosterService = studentRosterService;
+        this.attendanceService = attendanceService;
     }
 
     // Displays the page to select a subject and take attendance
     @GetMapping("/take/{year}")
     public String takeAttendance(@PathVariable("year") String year, Model model) {
-        List<Subject> subjects = subjectRepository.findByClassroom_Year(year);
+        List<Subject> subjects = referenceDataService.getSubjects(year);
         model.addAttribute("subjects", subjects);
         model.addAttribute("currentYear", year);
         return "attendance-take";
@@ -49,21 +50,17 @@ public class AttendanceController {
                                  @RequestParam("subjectId") Long subjectId,
                                  Model model) {
 
-        Optional<Subject> subjectOptional = subjectRepository.findById(subjectId);
+        Optional<Subject> subjectOptional = subjectRepository.findWithClassroomById(subjectId);
         if (subjectOptional.isEmpty()) {
             return "redirect:/attendance/take/" + year; // Redirect with error
         }
 
-        List<Student> students = studentRepository.findByClassroom_Year(year);
-
         // Check for existing attendance for today's date
         LocalDate today = LocalDate.now();
-        List<Attendance> existingAttendance = attendanceRepository.findBySubjectAndDate(subjectOptional.get(), today);
-
-        // Map existing attendance to a model attribute for pre-selection
-        boolean hasExistingAttendance = !existingAttendance.isEmpty();
+        boolean hasExistingAttendance = attendanceRepository.existsBySubjectAndDate(subjectOptional.get(), today);
 
-        model.addAttribute("students", students);
+        // Rows are read in chunks while the page renders instead of all up front
+        model.addAttribute("students", studentRosterService.getRoster(year));
         model.addAttribute("subject", subjectOptional.get());
         model.addAttribute("hasExistingAttendance", hasExistingAttendance);
         model.addAttribute("currentYear", year);
@@ -80,29 +77,16 @@ public class AttendanceController {
                                  @RequestParam(name = "presentStudentIds", required = false) List<Long> presentStudentIds,
                                  RedirectAttributes redirectAttributes) {
 
-        Subject subject = subjectRepository.findById(subjectId)
+        // The classroom is needed to refresh the year's cached summary after saving
+        Subject subject = subjectRepository.findWithClassroomById(subjectId)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid subject ID."));
 
-        LocalDate today = LocalDate.now();
-
-        // Delete any existing attendance for this subject and date before saving new ones
-        List<Attendance> existingAttendance = attendanceRepository.findBySubjectAndDate(subject, today);
-        attendanceRepository.deleteAll(existingAttendance);
-
         // Create and save new attendance records
         if (presentStudentIds == null) {
             presentStudentIds = List.of(); // Handle case where no one is present
         }
 
-        for (Long studentId : studentIds) {
-            Student student = studentRepository.findById(studentId).get(); // Assuming student exists
-            Attendance attendance = new Attendance();
-            attendance.setStudent(student);
-            attendance.setSubject(subject);
-            attendance.setDate(today);
-            attendance.setPresent(presentStudentIds.contains(studentId));
-            attendanceRepository.save(attendance);
-        }
+        attendanceService.saveAttendance(subject, LocalDate.now(), studentIds, presentStudentIds);
 
         redirectAttributes.addFlashAttribute("successMessage", "Attendance saved successfully for " + subject.getName() + "!");
         return "redirect:/attendance/take/" + year;
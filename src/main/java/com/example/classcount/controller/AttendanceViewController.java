@@ -1,79 +1,141 @@
 package com.example.classcount.controller;
 
-import com.example.classcount.entity.Attendance;
+import com.example.classcount.dto.AttendanceSummaryPage;
+import com.example.classcount.dto.ResetJobStatus;
+import com.example.classcount.entity.Classroom;
 import com.example.classcount.entity.Student;
 import com.example.classcount.entity.Subject;
-import com.example.classcount.repository.AttendanceRepository;
 import com.example.classcount.repository.StudentRepository;
-import com.example.classcount.repository.SubjectRepository;
+import com.example.classcount.service.AttendanceExportService;
+import com.example.classcount.service.AttendancePeriod;
+import com.example.classcount.service.AttendanceResetService;
 import com.example.classcount.service.AttendanceService;
-import com.example.classcount.service.ExcelExportService;
+import com.example.classcount.service.ExportFormat;
+import com.example.classcount.service.ReferenceDataService;
+import com.example.classcount.service.ResetJob;
+import com.example.classcount.service.TermCalendar;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Controller
 @RequestMapping("/attendance/view")
 public class AttendanceViewController {
 
     private final StudentRepository studentRepository;
-    private final SubjectRepository subjectRepository;
-    private final AttendanceRepository attendanceRepository;
-    private final ExcelExportService excelExportService;
+    private final ReferenceDataService referenceDataService;
+    private final AttendanceExportService attendanceExportService;
     private final AttendanceService attendanceService;
+    private final AttendanceResetService attendanceResetService;
+    private final TermCalendar termCalendar;
 
-    public AttendanceViewController(StudentRepository studentRepository, SubjectRepository subjectRepository, AttendanceRepository attendanceRepository, ExcelExportService excelExportService, AttendanceService attendanceService) {
+    @Value("${classcount.report.page-size:100}")
+    private int pageSize;
+
+    @Value("${classcount.report.max-page-size:500}")
+    private int maxPageSize;
+
+    // Terms offered in the report's term picker
+    @Value("${classcount.report.recent-terms:6}")
+    private int recentTerms;
+
+    public AttendanceViewController(StudentRepository studentRepository, ReferenceDataService referenceDataService, AttendanceExportService attendanceExportService,
+                                    AttendanceService attendanceService, AttendanceResetService attendanceResetService, TermCalendar termCalendar) {
         this.studentRepository = studentRepository;
-        this.subjectRepository = subjectRepository;
-        this.attendanceRepository = attendanceRepository;
-        this.excelExportService = excelExportService;
+        this.referenceDataService = referenceDataService;
+        this.attendanceExportService = attendanceExportService;
         this.attendanceService = attendanceService;
+        this.attendanceResetService = attendanceResetService;
+        this.termCalendar = termCalendar;
     }
 
     // MODIFIED: URL only uses {year}
+    // Renders the first page of students; the page loads the rest from the rows endpoint while scrolling.
+    // Reports cover all time unless a term or a from/to date range is given.
     @GetMapping("/{year}")
-    public String viewAttendance(@PathVariable("year") String year, Model model) {
-        // CRITICAL FIX: Service call must only pass 'year'
-        Map<String, Object> summary = attendanceService.getAttendanceSummaryForYear(year);
-
-        // Fetch students by year only
-        List<Student> studentsInYear = studentRepository.findByClassroom_Year(year);
+    public String viewAttendance(@PathVariable("year") String year,
+                                 @RequestParam(name = "term", required = false) Integer term,
+                                 @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                 @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                 Model model,
+                                 RedirectAttributes redirectAttributes) {
+        AttendancePeriod period;
+        try {
+            period = termCalendar.resolvePeriod(term, from, to);
+        } catch (IllegalArgumentException e) {
+            // Unknown term, half a date range or a reversed range: show the all-time report with the error
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+            return "redirect:/attendance/view/" + year;
+        }
+        AttendanceSummaryPage page = attendanceService.getSummaryPage(year, period, null, pageSize);
 
-        model.addAllAttributes(summary);
-        model.addAttribute("students", studentsInYear);
+        model.addAttribute("subjects", page.subjects());
+        model.addAttribute("rows", page.rows());
+        model.addAttribute("nextAfterStudentId", page.nextAfterStudentId());
         model.addAttribute("currentYear", year);
+        model.addAttribute("period", period);
+        model.addAttribute("terms", termCalendar.recentTerms(recentTerms));
+        model.addAttribute("selectedTerm", term);
+        model.addAttribute("from", from);
+        model.addAttribute("to", to);
+        // Carries the chosen period over to the rows endpoint and the export
+        model.addAttribute("periodQuery", periodQuery(term, from, to));
 
         return "attendance-view";
     }
 
+    // JSON page of summary rows: students after the given id, in id order
+    @GetMapping("/{year}/rows")
+    @ResponseBody
+    public ResponseEntity<AttendanceSummaryPage> summaryRows(@PathVariable("year") String year,
+                                                             @RequestParam(name = "after", required = false) Long afterStudentId,
+                                                             @RequestParam(name = "size", required = false) Integer size,
+                                                             @RequestParam(name = "term", required = false) Integer term,
+                                                             @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                             @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        AttendancePeriod period;
+        try {
+            period = termCalendar.resolvePeriod(term, from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageLimit = size != null ? Math.max(1, Math.min(size, maxPageSize)) : pageSize;
+        return ResponseEntity.ok(attendanceService.getSummaryPage(year, period, afterStudentId, pageLimit));
+    }
+
     // MODIFIED: URL only uses {year} for deletion scope
+    // Starts a background reset; the report page polls the job's progress
     @PostMapping("/reset/{year}")
     public String resetAttendance(@PathVariable("year") String year, RedirectAttributes redirectAttributes) {
         try {
-            // Fetch students only for the specific year
-            List<Student> studentsInYear = studentRepository.findByClassroom_Year(year);
+            Optional<ResetJob> job = attendanceResetService.submit(year);
 
-            List<Long> studentIds = studentsInYear.stream().map(Student::getId).collect(Collectors.toList());
-
-            if (studentIds.isEmpty()) {
+            if (job.isEmpty()) {
                 redirectAttributes.addFlashAttribute("errorMessage", "No students found in " + year + " to reset records.");
                 return "redirect:/attendance/view/" + year;
             }
 
-            // Execute batch deletion
-            int deletedCount = attendanceRepository.deleteByStudentIdIn(studentIds);
-
-            redirectAttributes.addFlashAttribute("successMessage", deletedCount + " attendance records deleted. Attendance is now reset for " + year + "!");
+            redirectAttributes.addFlashAttribute("successMessage", "Attendance reset started for " + year + ".");
+            redirectAttributes.addFlashAttribute("resetJobId", job.get().getId());
+        } catch (TaskRejectedException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Error resetting attendance: too many resets are queued. Please try again shortly.");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", "Error resetting attendance: " + e.getMessage());
         }
@@ -82,28 +144,87 @@ public class AttendanceViewController {
         return "redirect:/attendance/view/" + year;
     }
 
+    // Reports the progress of a background reset
+    @GetMapping("/reset/status/{jobId}")
+    @ResponseBody
+    public ResponseEntity<ResetJobStatus> resetStatus(@PathVariable("jobId") String jobId) {
+        return attendanceResetService.findJob(jobId)
+                .map(job -> ResponseEntity.ok(job.toStatus()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
 
     // MODIFIED: URL only uses {year} for export
+    // ?format= picks xlsx (default), csv or csv-gzip
     @GetMapping("/export/{year}")
-    public void exportAttendance(@PathVariable("year") String year, HttpServletResponse response) throws IOException {
-        response.setContentType("application/vnd.ms-excel");
-        String headerKey = "Content-Disposition";
-        // File name simplified
-        String headerValue = "attachment; filename=Attendance_" + year.replace(" ", "_") + ".xlsx";
-        response.setHeader(headerKey, headerValue);
+    public String exportAttendance(@PathVariable("year") String year,
+                                   @RequestParam(name = "format", defaultValue = "xlsx") String format,
+                                   @RequestParam(name = "term", required = false) Integer term,
+                                   @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                   @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                   HttpServletResponse response,
+                                   RedirectAttributes redirectAttributes) throws IOException {
+        AttendancePeriod period;
+        ExportFormat exportFormat;
+        try {
+            period = termCalendar.resolvePeriod(term, from, to);
+            exportFormat = ExportFormat.fromParameter(format);
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+            return "redirect:/attendance/view/" + year;
+        }
 
         // Fetch students only for the specific year
         List<Student> students = studentRepository.findByClassroom_Year(year);
-        List<Subject> subjects = subjectRepository.findByClassroom_Year(year);
+        List<Subject> subjects = referenceDataService.getSubjects(year);
+
+        // The export service reads only this year's attendance straight from the database
+        attendanceExportService.exportAttendance(response, year, period, exportFormat, students, subjects);
+        // The report has been written to the response
+        return null;
+    }
+
+    // Exports the chosen years (every classroom when none are given) into one download, one sheet or section per year
+    @GetMapping("/export")
+    public String exportYears(@RequestParam(name = "years", required = false) List<String> years,
+                              @RequestParam(name = "format", defaultValue = "xlsx") String format,
+                              @RequestParam(name = "term", required = false) Integer term,
+                              @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                              @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                              HttpServletResponse response,
+                              RedirectAttributes redirectAttributes) throws IOException {
+        // Spellings of the same classroom (years compare ignoring case) are exported once, under its own name
+        List<String> exportYears = years != null && !years.isEmpty()
+                ? years.stream().map(this::classroomYear).distinct().toList()
+                : referenceDataService.getClassrooms().stream().map(Classroom::getYear).toList();
+        AttendancePeriod period;
+        ExportFormat exportFormat;
+        try {
+            period = termCalendar.resolvePeriod(term, from, to);
+            exportFormat = ExportFormat.fromParameter(format);
+        } catch (IllegalArgumentException e) {
+            return reportWithError(exportYears, e.getMessage(), redirectAttributes);
+        }
+
+        attendanceExportService.exportYears(response, exportYears, period, exportFormat);
+        return null;
+    }
 
-        // Filter attendance records to match only the students in the selected year
-        List<Long> studentIds = students.stream().map(Student::getId).collect(Collectors.toList());
+    private String classroomYear(String year) {
+        return referenceDataService.findClassroom(year).map(Classroom::getYear).orElse(year);
+    }
 
-        List<Attendance> allAttendance = attendanceRepository.findAll().stream()
-                .filter(a -> studentIds.contains(a.getStudent().getId()))
-                .collect(Collectors.toList());
+    // Sends a failed multi-year export back to the first year's report, which shows the error
+    private static String reportWithError(List<String> years, String message, RedirectAttributes redirectAttributes) {
+        redirectAttributes.addFlashAttribute("errorMessage", message);
+        return years.isEmpty() ? "redirect:/welcome" : "redirect:/attendance/view/" + years.get(0);
+    }
 
-        // We pass the filtered student list and the filtered attendance list to the Excel service
-        excelExportService.exportAttendance(response, students, subjects, allAttendance);
+    private static String periodQuery(Integer term, LocalDate from, LocalDate to) {
+        return UriComponentsBuilder.newInstance()
+                .queryParamIfPresent("term", Optional.ofNullable(term))
+                .queryParamIfPresent("from", Optional.ofNullable(from))
+                .queryParamIfPresent("to", Optional.ofNullable(to))
+                .build().toUriString();
     }
 }
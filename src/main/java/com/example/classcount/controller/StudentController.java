@@ -1,11 +1,20 @@
 package com.example.classcount.controller;
 
+import com.example.classcount.dto.ImportJobStatus;
+import com.example.classcount.dto.PurgeResult;
 import com.example.classcount.entity.Classroom;
 import com.example.classcount.entity.Student;
-import com.example.classcount.repository.AttendanceRepository;
+import com.example.classcount.event.YearDataChangedEvent;
 import com.example.classcount.repository.ClassroomRepository;
 import com.example.classcount.repository.StudentRepository;
-import com.example.classcount.service.ExcelImportService;
+import com.example.classcount.service.ImportJob;
+import com.example.classcount.service.ImportJobService;
+import com.example.classcount.service.ReferenceDataService;
+import com.example.classcount.service.StudentPurgeService;
+import com.example.classcount.service.StudentRosterService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -16,7 +25,6 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping("/students")
@@ -26,29 +34,35 @@ public class StudentController {
 
     private final StudentRepository studentRepository;
     private final ClassroomRepository classroomRepository;
-    private final ExcelImportService excelImportService;
-    private final AttendanceRepository attendanceRepository;
+    private final ImportJobService importJobService;
+    private final ReferenceDataService referenceDataService;
+    private final StudentRosterService studentRosterService;
+    private final StudentPurgeService studentPurgeService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public StudentController(StudentRepository studentRepository, ClassroomRepository classroomRepository, ExcelImportService excelImportService, AttendanceRepository attendanceRepository) {
+    public StudentController(StudentRepository studentRepository, ClassroomRepository classroomRepository, ImportJobService importJobService, ReferenceDataService referenceDataService, StudentRosterService studentRosterService, StudentPurgeService studentPurgeService, ApplicationEventPublisher eventPublisher) {
         this.studentRepository = studentRepository;
         this.classroomRepository = classroomRepository;
-        this.excelImportService = excelImportService;
-        this.attendanceRepository = attendanceRepository;
+        this.importJobService = importJobService;
+        this.referenceDataService = referenceDataService;
+        this.studentRosterService = studentRosterService;
+        this.studentPurgeService = studentPurgeService;
+        this.eventPublisher = eventPublisher;
     }
 
     // Displays the list of students for a specific year
     @GetMapping("/{year}")
     public String listStudents(@PathVariable("year") String year, Model model, RedirectAttributes redirectAttributes) {
         try {
-            Optional<Classroom> classroomOptional = classroomRepository.findByYear(year);
+            Optional<Classroom> classroomOptional = referenceDataService.findClassroom(year);
             if (classroomOptional.isEmpty()) {
                 redirectAttributes.addFlashAttribute("errorMessage", "Invalid classroom year provided.");
                 return "redirect:/welcome";
             }
 
             // CRITICAL FIX: Fetch students by year only (REVERTED)
-            List<Student> students = studentRepository.findByClassroom_Year(year);
-            model.addAttribute("students", students);
+            // Rows are read in chunks while the page renders instead of all up front
+            model.addAttribute("students", studentRosterService.getRoster(year));
             model.addAttribute("currentYear", year);
             model.addAttribute("currentSection", "N/A"); // Placeholder for clean HTML parsing
             return "student-list";
@@ -60,7 +74,7 @@ public class StudentController {
         }
     }
 
-    // Handles the Excel file upload and import
+    // Handles the Excel file upload and queues the import as a background job
     @PostMapping("/import/{year}") // REMOVED {section} from path
     public String importStudents(@PathVariable("year") String year,
                                  @RequestParam("file") MultipartFile file,
@@ -71,35 +85,43 @@ public class StudentController {
                 return "redirect:/students/" + year;
             }
 
-            Classroom classroom = classroomRepository.findByYear(year)
+            Classroom classroom = referenceDataService.findClassroom(year)
                     .orElseThrow(() -> new IllegalArgumentException("Invalid year provided."));
 
-            // CRITICAL FIX: Call service with only two arguments (file, classroom)
-            int savedCount = excelImportService.importStudents(file, classroom);
+            ImportJob job = importJobService.submit(file, classroom);
 
-            redirectAttributes.addFlashAttribute("successMessage", savedCount + " students imported successfully into " + year + "!");
+            redirectAttributes.addFlashAttribute("successMessage", "Import started for " + year + " (job " + job.getId() + ").");
+            redirectAttributes.addFlashAttribute("importJobId", job.getId());
+        } catch (TaskRejectedException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Import Failed: Too many imports are running. Please try again shortly.");
         } catch (Exception e) {
-            String errorMsg = e.getMessage().contains("Excel data") ? e.getMessage() : "An unexpected error occurred during import. Check file format.";
-            redirectAttributes.addFlashAttribute("errorMessage", "Import Failed: " + errorMsg);
+            logger.error("Could not start student import for {}: {}", year, e.getMessage(), e);
+            redirectAttributes.addFlashAttribute("errorMessage", "Import Failed: An unexpected error occurred while uploading the file.");
         }
         return "redirect:/students/" + year;
     }
 
+    // Reports the progress of a background import
+    @GetMapping("/import/status/{jobId}")
+    @ResponseBody
+    public ResponseEntity<ImportJobStatus> importStatus(@PathVariable("jobId") String jobId) {
+        return importJobService.findJob(jobId)
+                .map(job -> ResponseEntity.ok(job.toStatus()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     // Deletes all students for the given year
     @PostMapping("/delete-all/{year}") // REMOVED {section} from path
     public String deleteAllStudentsByYearAndSection(@PathVariable("year") String year, RedirectAttributes redirectAttributes) {
-        List<Student> students = studentRepository.findByClassroom_Year(year);
+        // Set-based purge of the year's students, attendance and counters
+        PurgeResult result = studentPurgeService.purgeYear(year);
 
-        if (students.isEmpty()) {
+        if (result.deletedStudents() == 0) {
             redirectAttributes.addFlashAttribute("errorMessage", "No students found in " + year + " to delete.");
             return "redirect:/students/" + year;
         }
 
-        List<Long> studentIds = students.stream().map(Student::getId).collect(Collectors.toList());
-        attendanceRepository.deleteByStudentIdIn(studentIds);
-        studentRepository.deleteAll(students);
-
-        redirectAttributes.addFlashAttribute("successMessage", students.size() + " students and all associated attendance records have been deleted.");
+        redirectAttributes.addFlashAttribute("successMessage", result.deletedStudents() + " students and all associated attendance records have been deleted.");
 
         return "redirect:/students/" + year;
     }
@@ -108,7 +130,7 @@ public class StudentController {
     // Edit methods redirect to the simplified URL structure
     @GetMapping("/edit/{id}")
     public String editStudent(@PathVariable("id") Long id, Model model, RedirectAttributes redirectAttributes) {
-        Optional<Student> studentOptional = studentRepository.findById(id);
+        Optional<Student> studentOptional = studentRepository.findWithClassroomById(id);
         if (studentOptional.isEmpty()) {
             redirectAttributes.addFlashAttribute("errorMessage", "Student not found.");
             return "redirect:/welcome";
@@ -131,6 +153,7 @@ public class StudentController {
         student.setClassroom(existingClassroom);
 
         studentRepository.save(student);
+        eventPublisher.publishEvent(new YearDataChangedEvent(existingClassroom.getYear()));
         redirectAttributes.addFlashAttribute("successMessage", "Student updated successfully!");
 
         // Redirect back to the correct year
@@ -140,7 +163,7 @@ public class StudentController {
     // Delete submission redirects to the simplified URL structure
     @GetMapping("/delete/{id}")
     public String deleteStudent(@PathVariable("id") Long id, RedirectAttributes redirectAttributes) {
-        Optional<Student> studentOptional = studentRepository.findById(id);
+        Optional<Student> studentOptional = studentRepository.findWithClassroomById(id);
         if (studentOptional.isEmpty()) {
             redirectAttributes.addFlashAttribute("errorMessage", "Student not found.");
             return "redirect:/welcome";
@@ -148,10 +171,7 @@ public class StudentController {
         Student student = studentOptional.get();
         String year = student.getClassroom().getYear();
 
-        List<Long> singleId = List.of(student.getId());
-        attendanceRepository.deleteByStudentIdIn(singleId);
-
-        studentRepository.delete(student);
+        studentPurgeService.purgeStudents(year, List.of(student.getId()));
         redirectAttributes.addFlashAttribute("successMessage", "Student deleted successfully!");
 
         return "redirect:/students/" + year;
@@ -1,19 +1,20 @@
 package com.example.classcount.controller;
 
 import com.example.classcount.entity.Student;
-import com.example.classcount.entity.Subject;
-import com.example.classcount.repository.AttendanceRepository;
 import com.example.classcount.repository.StudentRepository;
-import com.example.classcount.repository.SubjectRepository;
+import com.example.classcount.service.AttendancePeriod;
+import com.example.classcount.service.StudentReportService;
+import com.example.classcount.service.TermCalendar;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.HashMap;
-import java.util.List;
+import java.time.LocalDate;
 import java.util.Map;
 import java.util.Optional;
 
@@ -22,21 +23,24 @@ import java.util.Optional;
 public class StudentReportController {
 
     private final StudentRepository studentRepository;
-    private final AttendanceRepository attendanceRepository;
-    private final SubjectRepository subjectRepository;
+    private final StudentReportService studentReportService;
+    private final TermCalendar termCalendar;
 
     public StudentReportController(StudentRepository studentRepository,
-                                   AttendanceRepository attendanceRepository,
-                                   SubjectRepository subjectRepository) {
+                                   StudentReportService studentReportService,
+                                   TermCalendar termCalendar) {
         this.studentRepository = studentRepository;
-        this.attendanceRepository = attendanceRepository;
-        this.subjectRepository = subjectRepository;
+        this.studentReportService = studentReportService;
+        this.termCalendar = termCalendar;
     }
 
     // ✅ FIXED: Removed 'section' from the URL mapping
     @GetMapping("/{year}/{rollNumber}")
     public String viewIndividualReport(@PathVariable("year") String year,
                                        @PathVariable("rollNumber") String rollNumber,
+                                       @RequestParam(name = "term", required = false) Integer term,
+                                       @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                       @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
                                        Model model,
                                        RedirectAttributes redirectAttributes) {
 
@@ -50,31 +54,20 @@ public class StudentReportController {
         }
 
         Student student = studentOptional.get();
-        List<Subject> subjects = subjectRepository.findByClassroom_Year(year);
-
-        Map<String, String> subjectAttendanceSummary = new HashMap<>();
-        int overallPresent = 0;
-        int overallTotal = 0;
-
-        for (Subject subject : subjects) {
-            long presentCount = attendanceRepository.findByStudentAndSubject(student, subject)
-                    .stream().filter(a -> a.isPresent()).count();
-            long total = attendanceRepository.findByStudentAndSubject(student, subject).size();
-
-            subjectAttendanceSummary.put(subject.getName(), presentCount + "/" + total);
-            overallPresent += presentCount;
-            overallTotal += total;
+        AttendancePeriod period;
+        try {
+            period = termCalendar.resolvePeriod(term, from, to);
+        } catch (IllegalArgumentException e) {
+            // Unknown term, half a date range or a reversed range: show the all-time report with the error
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+            return "redirect:/reports/student/" + year + "/" + rollNumber;
         }
+        Map<String, Object> report = studentReportService.getIndividualReport(student, year, period);
 
-        String overallPercentage = overallTotal > 0
-                ? String.format("%.2f%%", (double) overallPresent / overallTotal * 100)
-                : "0.00%";
-
+        model.addAllAttributes(report);
+        model.addAttribute("period", period);
         model.addAttribute("student", student);
         model.addAttribute("currentYear", year);
-        model.addAttribute("subjects", subjects);
-        model.addAttribute("subjectAttendanceSummary", subjectAttendanceSummary);
-        model.addAttribute("overallPercentage", overallPercentage);
 
         return "individual-report";
     }
@@ -2,8 +2,12 @@ package com.example.classcount.controller;
 
 import com.example.classcount.entity.Classroom;
 import com.example.classcount.entity.Subject;
+import com.example.classcount.event.YearDataChangedEvent;
 import com.example.classcount.repository.ClassroomRepository;
 import com.example.classcount.repository.SubjectRepository;
+import com.example.classcount.service.AttendanceService;
+import com.example.classcount.service.ReferenceDataService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -17,16 +21,22 @@ public class SubjectController {
 
     private final SubjectRepository subjectRepository;
     private final ClassroomRepository classroomRepository;
+    private final AttendanceService attendanceService;
+    private final ReferenceDataService referenceDataService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public SubjectController(SubjectRepository subjectRepository, ClassroomRepository classroomRepository) {
+    public SubjectController(SubjectRepository subjectRepository, ClassroomRepository classroomRepository, AttendanceService attendanceService, ReferenceDataService referenceDataService, ApplicationEventPublisher eventPublisher) {
         this.subjectRepository = subjectRepository;
         this.classroomRepository = classroomRepository;
+        this.attendanceService = attendanceService;
+        this.referenceDataService = referenceDataService;
+        this.eventPublisher = eventPublisher;
     }
 
     // Display the list of subjects for a specific year
     @GetMapping("/{year}")
     public String listSubjects(@PathVariable("year") String year, Model model) {
-        List<Subject> subjects = subjectRepository.findByClassroom_Year(year);
+        List<Subject> subjects = referenceDataService.getSubjects(year);
         model.addAttribute("subjects", subjects);
         model.addAttribute("currentYear", year);
         model.addAttribute("newSubject", new Subject()); // For the Add Subject form
@@ -38,10 +48,12 @@ public class SubjectController {
     public String addSubject(@ModelAttribute("newSubject") Subject subject, RedirectAttributes redirectAttributes) {
         try {
             // Find the classroom by year
-            Classroom classroom = classroomRepository.findByYear(subject.getClassroom().getYear())
+            Classroom classroom = referenceDataService.findClassroom(subject.getClassroom().getYear())
                     .orElseThrow(() -> new IllegalArgumentException("Invalid year provided."));
             subject.setClassroom(classroom);
             subjectRepository.save(subject);
+            referenceDataService.evictSubjects(classroom.getYear());
+            eventPublisher.publishEvent(new YearDataChangedEvent(classroom.getYear()));
             redirectAttributes.addFlashAttribute("successMessage", "Subject saved successfully!");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", "Error saving subject: " + e.getMessage());
@@ -52,7 +64,7 @@ public class SubjectController {
     // Handle the form for editing a subject
     @GetMapping("/edit/{id}")
     public String editSubject(@PathVariable("id") Long id, Model model) {
-        Subject subject = subjectRepository.findById(id)
+        Subject subject = subjectRepository.findWithClassroomById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid subject ID:" + id));
         model.addAttribute("subject", subject);
         model.addAttribute("currentYear", subject.getClassroom().getYear());
@@ -69,6 +81,8 @@ public class SubjectController {
         subject.setClassroom(existingClassroom);
 
         subjectRepository.save(subject);
+        referenceDataService.evictSubjects(existingClassroom.getYear());
+        eventPublisher.publishEvent(new YearDataChangedEvent(existingClassroom.getYear()));
         redirectAttributes.addFlashAttribute("successMessage", "Subject updated successfully!");
 
         // Correct redirect back to the subject list for the correct year
@@ -78,10 +92,11 @@ public class SubjectController {
     // Handle subject deletion
     @GetMapping("/delete/{id}")
     public String deleteSubject(@PathVariable("id") Long id, RedirectAttributes redirectAttributes) {
-        Subject subject = subjectRepository.findById(id)
+        Subject subject = subjectRepository.findWithClassroomById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid subject ID:" + id));
         String year = subject.getClassroom().getYear();
-        subjectRepository.delete(subject);
+        attendanceService.deleteSubject(subject);
+        referenceDataService.evictSubjects(year);
         redirectAttributes.addFlashAttribute("successMessage", "Subject deleted successfully!");
         return "redirect:/subjects/" + year;
     }
@@ -3,6 +3,7 @@ package com.example.classcount.controller;
 import com.example.classcount.entity.User;
 import com.example.classcount.repository.UserRepository;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -20,10 +21,12 @@ public class UserController {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserCache userCache;
 
-    public UserController(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserController(UserRepository userRepository, PasswordEncoder passwordEncoder, UserCache userCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userCache = userCache;
     }
 
     // Displays the user management page with list of all users
@@ -59,6 +62,7 @@ public class UserController {
             }
 
             userRepository.save(newUser);
+            userCache.removeUserFromCache(newUser.getUsername());
             redirectAttributes.addFlashAttribute("successMessage", "User '" + newUser.getUsername() + "' added successfully!");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", "Error saving user: " + e.getMessage());
@@ -78,6 +82,8 @@ public class UserController {
                 return "redirect:/users/manage";
             }
             userRepository.deleteById(id);
+            // The deleted user must not be able to log in from a cached entry
+            userCache.removeUserFromCache(user.getUsername());
             redirectAttributes.addFlashAttribute("successMessage", "User '" + user.getUsername() + "' deleted successfully.");
         } else {
             redirectAttributes.addFlashAttribute("errorMessage", "User not found.");
@@ -1,7 +1,7 @@
 package com.example.classcount.controller;
 
 import com.example.classcount.entity.Classroom;
-import com.example.classcount.repository.ClassroomRepository;
+import com.example.classcount.service.ReferenceDataService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,10 +11,10 @@ import java.util.List;
 @Controller
 public class WelcomeController {
 
-    private final ClassroomRepository classroomRepository;
+    private final ReferenceDataService referenceDataService;
 
-    public WelcomeController(ClassroomRepository classroomRepository) {
-        this.classroomRepository = classroomRepository;
+    public WelcomeController(ReferenceDataService referenceDataService) {
+        this.referenceDataService = referenceDataService;
     }
 
 
@@ -26,7 +26,7 @@ public class WelcomeController {
 
     @GetMapping("/welcome")
     public String showWelcomePage(Model model) {
-        List<Classroom> classrooms = classroomRepository.findAll();
+        List<Classroom> classrooms = referenceDataService.getClassrooms();
         model.addAttribute("classrooms", classrooms);
         return "welcome";
     }
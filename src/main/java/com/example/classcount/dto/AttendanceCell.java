@@ -0,0 +1,7 @@
+package com.example.classcount.dto;
+
+/**
+ * Classes attended out of classes held, for one student in one subject or overall.
+ */
+public record AttendanceCell(int present, int total) {
+}
@@ -0,0 +1,7 @@
+package com.example.classcount.dto;
+
+/**
+ * Present/total attendance tally for one (student, subject) pair, computed by the database.
+ */
+public record AttendanceCount(Long studentId, Long subjectId, Long presentCount, Long totalCount) {
+}
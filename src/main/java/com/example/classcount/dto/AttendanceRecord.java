@@ -0,0 +1,7 @@
+package com.example.classcount.dto;
+
+/**
+ * A single attendance mark reduced to the ids the reports need, without loading the entities.
+ */
+public record AttendanceRecord(Long studentId, Long subjectId, boolean present) {
+}
@@ -0,0 +1,17 @@
+package com.example.classcount.dto;
+
+import com.example.classcount.entity.Subject;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+
+/**
+ * One page of a year's attendance summary, as plain numbers; formatting is left to the view.
+ * Rows are ordered by student id, and each row has a cell per subject in the order of {@code subjects}.
+ * {@code nextAfterStudentId} is the cursor for the following page, or null on the last page.
+ */
+public record AttendanceSummaryPage(String year,
+                                    @JsonIgnore List<Subject> subjects,
+                                    List<StudentAttendanceRow> rows,
+                                    Long nextAfterStudentId) {
+}
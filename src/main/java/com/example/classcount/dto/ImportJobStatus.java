@@ -0,0 +1,11 @@
+package com.example.classcount.dto;
+
+import java.util.List;
+
+/**
+ * Point-in-time progress of a background student import, as returned by the status endpoint.
+ */
+public record ImportJobStatus(String id, String year, String state,
+                              int parsed, int inserted, int skipped, int failed,
+                              List<String> skippedRollNumbers, String errorMessage) {
+}
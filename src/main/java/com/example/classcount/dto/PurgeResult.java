@@ -0,0 +1,7 @@
+package com.example.classcount.dto;
+
+/**
+ * Outcome of a student purge: how many students and attendance records were deleted.
+ */
+public record PurgeResult(int deletedStudents, int deletedAttendanceRecords) {
+}
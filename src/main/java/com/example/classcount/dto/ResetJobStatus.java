@@ -0,0 +1,9 @@
+package com.example.classcount.dto;
+
+/**
+ * Point-in-time progress of a background attendance reset, as returned by the status endpoint.
+ */
+public record ResetJobStatus(String id, String year, String state,
+                             int totalStudents, int processedStudents, long deletedRecords, int batches,
+                             String errorMessage) {
+}
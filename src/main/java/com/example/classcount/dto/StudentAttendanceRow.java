@@ -0,0 +1,10 @@
+package com.example.classcount.dto;
+
+import java.util.List;
+
+/**
+ * One student's line of the year summary: a cell per subject, in the summary's subject order,
+ * and the overall attendance across all subjects.
+ */
+public record StudentAttendanceRow(Long studentId, String studentName, List<AttendanceCell> cells, AttendanceCell overall) {
+}
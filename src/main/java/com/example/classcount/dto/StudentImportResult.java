@@ -0,0 +1,10 @@
+package com.example.classcount.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a roster import: how many students were inserted and which roll numbers were skipped
+ * because they already exist or appear more than once in the file.
+ */
+public record StudentImportResult(int importedCount, List<String> skippedRollNumbers) {
+}
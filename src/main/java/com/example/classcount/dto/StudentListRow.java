@@ -0,0 +1,7 @@
+package com.example.classcount.dto;
+
+/**
+ * The columns the roster pages show for a student, read without loading the entity.
+ */
+public record StudentListRow(Long id, String rollNumber, String name) {
+}
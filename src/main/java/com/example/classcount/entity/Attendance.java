@@ -5,7 +5,16 @@ import lombok.Data;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "attendance")
+@Table(name = "attendance",
+        // The unique key also serves lookups by student and by (student, subject)
+        uniqueConstraints = @UniqueConstraint(name = "uk_attendance_student_subject_date",
+                columnNames = {"student_id", "subject_id", "date"}),
+        indexes = {
+                // Taking attendance: marks of one subject on one date, covering the fields read back
+                @Index(name = "idx_attendance_subject_date", columnList = "subject_id, date, student_id, is_present"),
+                // Reports: present/total counts grouped per (student, subject) without touching the rows
+                @Index(name = "idx_attendance_student_subject_present", columnList = "student_id, subject_id, is_present")
+        })
 @Data
 public class Attendance {
 
@@ -0,0 +1,40 @@
+package com.example.classcount.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Running present/total tally of one student's attendance in one subject during one term.
+ * Maintained in the same transaction as every attendance write so reports never recount raw rows.
+ */
+@Entity
+@Table(name = "attendance_term_counters",
+        // (student, term) leads the key so a term's counters are read without touching other terms
+        uniqueConstraints = @UniqueConstraint(name = "uk_attendance_term_counters_student_term_subject",
+                columnNames = {"student_id", "term", "subject_id"}),
+        indexes = @Index(name = "idx_attendance_term_counters_subject", columnList = "subject_id"))
+@Data
+public class AttendanceCounter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    private Student student;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "subject_id", nullable = false)
+    private Subject subject;
+
+    // Term key, see Term.key()
+    @Column(nullable = false)
+    private int term;
+
+    @Column(nullable = false)
+    private long presentCount;
+
+    @Column(nullable = false)
+    private long totalCount;
+}
@@ -5,7 +5,7 @@ import lombok.Data;
 import java.util.List;
 
 @Entity
-@Table(name = "subjects")
+@Table(name = "subjects", indexes = @Index(name = "idx_subjects_classroom", columnList = "classroom_id"))
 @Data
 public class Subject {
 
@@ -0,0 +1,8 @@
+package com.example.classcount.event;
+
+/**
+ * Published whenever the students, subjects or attendance of an academic year change,
+ * so anything derived from that year (e.g. cached summaries) can be refreshed.
+ */
+public record YearDataChangedEvent(String year) {
+}
@@ -0,0 +1,48 @@
+package com.example.classcount.repository;
+
+import com.example.classcount.dto.AttendanceCount;
+import com.example.classcount.entity.AttendanceCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AttendanceCounterRepository extends JpaRepository<AttendanceCounter, Long> {
+
+    // All-time present/total counts per (student, subject) for every student in the given year
+    @Query("SELECT new com.example.classcount.dto.AttendanceCount(c.student.id, c.subject.id, SUM(c.presentCount), SUM(c.totalCount)) " +
+            "FROM AttendanceCounter c WHERE c.student.classroom.year = :year GROUP BY c.student.id, c.subject.id")
+    List<AttendanceCount> findCountsByYear(String year);
+
+    // All-time present/total counts per (student, subject) for a page of students
+    @Query("SELECT new com.example.classcount.dto.AttendanceCount(c.student.id, c.subject.id, SUM(c.presentCount), SUM(c.totalCount)) " +
+            "FROM AttendanceCounter c WHERE c.student.id IN :studentIds GROUP BY c.student.id, c.subject.id")
+    List<AttendanceCount> findCountsByStudentIdIn(Collection<Long> studentIds);
+
+    // Present/total counts per (student, subject) over a run of terms, for every student in the given year
+    @Query("SELECT new com.example.classcount.dto.AttendanceCount(c.student.id, c.subject.id, SUM(c.presentCount), SUM(c.totalCount)) " +
+            "FROM AttendanceCounter c WHERE c.student.classroom.year = :year AND c.term BETWEEN :firstTerm AND :lastTerm " +
+            "GROUP BY c.student.id, c.subject.id")
+    List<AttendanceCount> findCountsByYearAndTermBetween(String year, int firstTerm, int lastTerm);
+
+    // Present/total counts per (student, subject) over a run of terms, for a page of students
+    @Query("SELECT new com.example.classcount.dto.AttendanceCount(c.student.id, c.subject.id, SUM(c.presentCount), SUM(c.totalCount)) " +
+            "FROM AttendanceCounter c WHERE c.student.id IN :studentIds AND c.term BETWEEN :firstTerm AND :lastTerm " +
+            "GROUP BY c.student.id, c.subject.id")
+    List<AttendanceCount> findCountsByStudentIdInAndTermBetween(Collection<Long> studentIds, int firstTerm, int lastTerm);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM AttendanceCounter c WHERE c.student.id IN :studentIds")
+    int deleteByStudentIdIn(Collection<Long> studentIds);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM AttendanceCounter c WHERE c.subject.id = :subjectId")
+    int deleteBySubjectId(Long subjectId);
+}
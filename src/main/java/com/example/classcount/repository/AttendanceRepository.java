@@ -1,5 +1,7 @@
 package com.example.classcount.repository;
 
+import com.example.classcount.dto.AttendanceCount;
+import com.example.classcount.dto.AttendanceRecord;
 import com.example.classcount.entity.Attendance;
 import com.example.classcount.entity.Student;
 import com.example.classcount.entity.Subject;
@@ -10,6 +12,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,6 +21,35 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
     List<Attendance> findBySubjectAndDate(Subject subject, LocalDate date);
     List<Attendance> findByStudentAndSubject(Student student, Subject subject);
     List<Attendance> findBySubject(Subject subject);
+    boolean existsBySubjectAndDate(Subject subject, LocalDate date);
+
+    /**
+     * Returns the marks already taken for a subject on one date, without loading the entities.
+     */
+    @Query("SELECT new com.example.classcount.dto.AttendanceRecord(a.student.id, a.subject.id, a.isPresent) " +
+            "FROM Attendance a WHERE a.subject = :subject AND a.date = :date")
+    List<AttendanceRecord> findRecordsBySubjectAndDate(Subject subject, LocalDate date);
+
+    /**
+     * Counts present/total marks per (student, subject) taken between two dates, for every student in
+     * the given year. Filtering on the subjects' year lets the date range be read from the
+     * (subject, date) index instead of each student's whole history.
+     */
+    @Query("SELECT new com.example.classcount.dto.AttendanceCount(a.student.id, a.subject.id, " +
+            "SUM(CASE WHEN a.isPresent = true THEN 1L ELSE 0L END), COUNT(a)) " +
+            "FROM Attendance a WHERE a.subject.classroom.year = :year AND a.date BETWEEN :from AND :to " +
+            "GROUP BY a.student.id, a.subject.id")
+    List<AttendanceCount> findCountsByYearAndDateBetween(String year, LocalDate from, LocalDate to);
+
+    /**
+     * Counts present/total marks per (student, subject) taken between two dates, for a page of students of a year.
+     */
+    @Query("SELECT new com.example.classcount.dto.AttendanceCount(a.student.id, a.subject.id, " +
+            "SUM(CASE WHEN a.isPresent = true THEN 1L ELSE 0L END), COUNT(a)) " +
+            "FROM Attendance a WHERE a.subject.classroom.year = :year AND a.date BETWEEN :from AND :to " +
+            "AND a.student.id IN :studentIds GROUP BY a.student.id, a.subject.id")
+    List<AttendanceCount> findCountsByYearAndDateBetweenAndStudentIdIn(String year, LocalDate from, LocalDate to,
+                                                                       Collection<Long> studentIds);
 
     /**
      * CRITICAL: Deletes all attendance records associated with a list of student IDs.
@@ -25,5 +57,21 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
     @Transactional
     @Modifying
     @Query("DELETE FROM Attendance a WHERE a.student.id IN :studentIds")
-    int deleteByStudentIdIn(List<Long> studentIds);
+    int deleteByStudentIdIn(Collection<Long> studentIds);
+
+    /**
+     * Deletes all attendance taken for one subject in a single statement.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Attendance a WHERE a.subject.id = :subjectId")
+    int deleteBySubjectId(Long subjectId);
+
+    /**
+     * Deletes the given students' attendance for a subject on one date in a single statement.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Attendance a WHERE a.subject = :subject AND a.date = :date AND a.student.id IN :studentIds")
+    int deleteBySubjectAndDateAndStudentIdIn(Subject subject, LocalDate date, Collection<Long> studentIds);
 }
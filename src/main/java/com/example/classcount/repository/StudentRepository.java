@@ -1,9 +1,16 @@
 package com.example.classcount.repository;
 
+import com.example.classcount.dto.StudentListRow;
 import com.example.classcount.entity.Student;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +22,33 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
 
     // REVERTED: Finds a specific student by Roll Number and Year.
     Optional<Student> findByRollNumberAndClassroom_Year(String rollNumber, String year);
+
+    // Keyset page of a year's students: the next students after the given id, in id order.
+    List<Student> findByClassroom_YearAndIdGreaterThanOrderByIdAsc(String year, Long afterId, Limit limit);
+
+    // Keyset chunk of a year's roster as display rows, for pages rendered while the rows are read.
+    @Query("SELECT new com.example.classcount.dto.StudentListRow(s.id, s.rollNumber, s.name) FROM Student s " +
+            "WHERE s.classroom.year = :year AND s.id > :afterId ORDER BY s.id")
+    List<StudentListRow> findRowsByYearAfter(String year, Long afterId, Limit limit);
+
+    // Loads a student with its classroom in one query, for pages that show or redirect to the year.
+    @EntityGraph(attributePaths = "classroom")
+    Optional<Student> findWithClassroomById(Long id);
+
+    long countByClassroom_Year(String year);
+
+    // Keyset chunk of a year's student ids, for set-based deletes.
+    @Query("SELECT s.id FROM Student s WHERE s.classroom.year = :year AND s.id > :afterId ORDER BY s.id")
+    List<Long> findIdsByYearAfter(String year, Long afterId, Limit limit);
+
+    // Deletes students in one statement, bypassing the entity lifecycle and its attendance cascade.
+    // Their attendance and counters must be deleted first.
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Student s WHERE s.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
+
+    // Roll numbers are unique across all years, so imports check against every existing one.
+    @Query("SELECT s.rollNumber FROM Student s")
+    List<String> findAllRollNumbers();
 }
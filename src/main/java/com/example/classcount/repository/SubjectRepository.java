@@ -1,12 +1,32 @@
 package com.example.classcount.repository;
 
 import com.example.classcount.entity.Subject;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SubjectRepository extends JpaRepository<Subject, Long> {
     // Returns all subjects belonging to a particular classroom year
     List<Subject> findByClassroom_Year(String year);
+
+    // Same as above, with the classroom fetched in the same query
+    @EntityGraph(attributePaths = "classroom")
+    List<Subject> findWithClassroomByClassroom_Year(String year);
+
+    // Loads a subject with its classroom in one query, for pages that show or redirect to the year
+    @EntityGraph(attributePaths = "classroom")
+    Optional<Subject> findWithClassroomById(Long id);
+
+    // Locks a subject's row until the transaction ends, so saves of the same subject run one after another
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Subject> findLockedById(Long id);
+
+    // Locks all of a year's subjects in id order, so bulk changes to the year's attendance wait for saves in progress
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Subject> findLockedByClassroom_YearOrderByIdAsc(String year);
 }
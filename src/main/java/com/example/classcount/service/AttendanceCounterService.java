@@ -0,0 +1,162 @@
+package com.example.classcount.service;
+
+import com.example.classcount.dto.AttendanceCount;
+import com.example.classcount.repository.AttendanceCounterRepository;
+import com.example.classcount.repository.AttendanceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the attendance_term_counters table: one present/total row per (student, subject, term) that
+ * reports read instead of recounting the raw attendance history, and answers the counts of a report period.
+ */
+@Service
+public class AttendanceCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceCounterService.class);
+
+    // Adds a delta to a counter, creating the counter on its first mark of the term
+    private static final String APPLY_DELTA_SQL =
+            "INSERT INTO attendance_term_counters (student_id, subject_id, term, present_count, total_count) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE present_count = present_count + VALUES(present_count), " +
+            "total_count = total_count + VALUES(total_count)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AttendanceCounterRepository attendanceCounterRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final TermCalendar termCalendar;
+
+    // Recount and consistency checks, built from the configured term layout
+    private final String rebuildSql;
+    private final String countMismatchesSql;
+
+    @Value("${classcount.attendance.batch-size:100}")
+    private int batchSize;
+
+    public AttendanceCounterService(JdbcTemplate jdbcTemplate, AttendanceCounterRepository attendanceCounterRepository,
+                                    AttendanceRepository attendanceRepository, TermCalendar termCalendar) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.attendanceCounterRepository = attendanceCounterRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.termCalendar = termCalendar;
+
+        String term = termCalendar.termKeySql("date");
+        String rawCounts = "SELECT student_id, subject_id, " + term + " AS term, " +
+                "SUM(CASE WHEN is_present THEN 1 ELSE 0 END) AS present_count, COUNT(*) AS total_count " +
+                "FROM attendance GROUP BY student_id, subject_id, " + term;
+        this.rebuildSql = "INSERT INTO attendance_term_counters (student_id, subject_id, term, present_count, total_count) " + rawCounts;
+        // Counters that disagree with the raw rows, plus non-empty counters with no raw rows behind them
+        this.countMismatchesSql = "SELECT COUNT(*) FROM (" +
+                "SELECT g.student_id FROM (" + rawCounts + ") g " +
+                "LEFT JOIN attendance_term_counters c ON c.student_id = g.student_id AND c.subject_id = g.subject_id AND c.term = g.term " +
+                "WHERE c.id IS NULL OR c.present_count <> g.present_count OR c.total_count <> g.total_count " +
+                "UNION ALL " +
+                "SELECT c.student_id FROM attendance_term_counters c WHERE c.total_count <> 0 AND NOT EXISTS " +
+                "(SELECT 1 FROM attendance a WHERE a.student_id = c.student_id AND a.subject_id = c.subject_id " +
+                "AND " + termCalendar.termKeySql("a.date") + " = c.term)" +
+                ") m";
+    }
+
+    /**
+     * Present/total counts per (student, subject) of a year over the given period. All-time and whole-term
+     * periods are summed from the per-term counters; other date ranges are counted from the raw rows
+     * within the range only.
+     */
+    @Transactional(readOnly = true)
+    public List<AttendanceCount> countsForYear(String year, AttendancePeriod period) {
+        if (period.isAllTime()) {
+            return attendanceCounterRepository.findCountsByYear(year);
+        }
+        if (termCalendar.coversWholeTerms(period)) {
+            return attendanceCounterRepository.findCountsByYearAndTermBetween(year,
+                    termCalendar.termOf(period.from()).key(), termCalendar.termOf(period.to()).key());
+        }
+        return attendanceRepository.findCountsByYearAndDateBetween(year, period.from(), period.to());
+    }
+
+    /**
+     * Present/total counts per (student, subject) of some students of a year over the given period,
+     * read the same way as {@link #countsForYear}.
+     */
+    @Transactional(readOnly = true)
+    public List<AttendanceCount> countsForStudents(String year, Collection<Long> studentIds, AttendancePeriod period) {
+        if (studentIds.isEmpty()) {
+            return List.of();
+        }
+        if (period.isAllTime()) {
+            return attendanceCounterRepository.findCountsByStudentIdIn(studentIds);
+        }
+        if (termCalendar.coversWholeTerms(period)) {
+            return attendanceCounterRepository.findCountsByStudentIdInAndTermBetween(studentIds,
+                    termCalendar.termOf(period.from()).key(), termCalendar.termOf(period.to()).key());
+        }
+        return attendanceRepository.findCountsByYearAndDateBetweenAndStudentIdIn(year, period.from(), period.to(), studentIds);
+    }
+
+    /**
+     * Applies present/total deltas for one subject on one date, keyed by student id, to the counters of
+     * the date's term. Must run inside the transaction that writes the matching attendance rows.
+     */
+    @Transactional
+    public void applyDeltas(Long subjectId, LocalDate date, Map<Long, int[]> deltasByStudent) {
+        int term = termCalendar.termOf(date).key();
+        List<Object[]> rows = new ArrayList<>(deltasByStudent.size());
+        deltasByStudent.forEach((studentId, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                rows.add(new Object[]{studentId, subjectId, delta[0], delta[1]});
+            }
+        });
+        jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, rows, batchSize, (ps, row) -> {
+            ps.setLong(1, (Long) row[0]);
+            ps.setLong(2, (Long) row[1]);
+            ps.setInt(3, term);
+            ps.setInt(4, (Integer) row[2]);
+            ps.setInt(5, (Integer) row[3]);
+        });
+    }
+
+    /**
+     * Counts counters that do not match a recount of the raw attendance rows.
+     */
+    @Transactional(readOnly = true)
+    public long countMismatches() {
+        Long mismatches = jdbcTemplate.queryForObject(countMismatchesSql, Long.class);
+        return mismatches != null ? mismatches : 0;
+    }
+
+    /**
+     * Recomputes every counter from the raw attendance rows and checks the result against a fresh recount.
+     * @return the number of counters that were out of date before the rebuild.
+     */
+    @Transactional
+    public long rebuild() {
+        long stale = countMismatches();
+
+        jdbcTemplate.update("DELETE FROM attendance_term_counters");
+        int rebuilt = jdbcTemplate.update(rebuildSql);
+
+        long remaining = countMismatches();
+        if (remaining != 0) {
+            throw new IllegalStateException(remaining + " attendance counters still differ from the raw rows after rebuild.");
+        }
+        logger.info("Rebuilt {} attendance counters ({} were out of date).", rebuilt, stale);
+        return stale;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean needsInitialBuild() {
+        Integer counters = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendance_term_counters", Integer.class);
+        Integer marks = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (SELECT 1 FROM attendance LIMIT 1) a", Integer.class);
+        return counters != null && counters == 0 && marks != null && marks > 0;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.classcount.service;
+
+import com.example.classcount.entity.Student;
+import com.example.classcount.entity.Subject;
+import com.example.classcount.repository.StudentRepository;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Aggregates attendance reports from the maintained counters and streams them to the response in the
+ * requested format. Aggregation is shared by every format; the {@link AttendanceReportWriter}s only
+ * lay the aggregated reports out.
+ */
+@Service
+public class AttendanceExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceExportService.class);
+
+    private final AttendanceCounterService attendanceCounterService;
+    private final StudentRepository studentRepository;
+    private final ReferenceDataService referenceDataService;
+    private final Executor exportExecutor;
+    private final Map<ExportFormat, AttendanceReportWriter> writers = new EnumMap<>(ExportFormat.class);
+
+    public AttendanceExportService(AttendanceCounterService attendanceCounterService, StudentRepository studentRepository,
+                                   ReferenceDataService referenceDataService, @Qualifier("exportExecutor") Executor exportExecutor,
+                                   List<AttendanceReportWriter> writers) {
+        this.attendanceCounterService = attendanceCounterService;
+        this.studentRepository = studentRepository;
+        this.referenceDataService = referenceDataService;
+        this.exportExecutor = exportExecutor;
+        writers.forEach(writer -> this.writers.put(writer.format(), writer));
+    }
+
+    /**
+     * Writes the attendance report for one year over the given period from the maintained attendance
+     * counters, one small row per (student, subject) instead of the raw attendance history.
+     */
+    public void exportAttendance(HttpServletResponse response, String year, AttendancePeriod period, ExportFormat format,
+                                 List<Student> students, List<Subject> subjects) throws IOException {
+        AttendanceMatrix matrix = AttendanceMatrix.of(students, subjects, attendanceCounterService.countsForYear(year, period));
+        write(response, "Attendance_" + year.replace(" ", "_"), format,
+                List.of(new YearReport(year, "Attendance Report", students, subjects, matrix)));
+    }
+
+    /**
+     * Writes the attendance reports of several years into one download, one section (sheet) per year in
+     * the given order. Each year's students, subjects and counts are read and laid out in parallel on the
+     * export executor, so the export takes about as long as the slowest year; the years are then written
+     * one after another to the streaming output.
+     */
+    public void exportYears(HttpServletResponse response, List<String> years, AttendancePeriod period, ExportFormat format) throws IOException {
+        long start = System.nanoTime();
+        List<CompletableFuture<YearReport>> loads = years.stream()
+                .map(year -> CompletableFuture.supplyAsync(() -> loadYear(year, period), exportExecutor))
+                .toList();
+
+        List<YearReport> reports = new ArrayList<>(loads.size());
+        try {
+            for (CompletableFuture<YearReport> load : loads) {
+                reports.add(load.join());
+            }
+        } catch (CompletionException e) {
+            loads.forEach(load -> load.cancel(false));
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        logger.debug("Loaded {} years for export in {} ms", years.size(), (System.nanoTime() - start) / 1_000_000);
+
+        write(response, "Attendance_All_Years", format, reports);
+    }
+
+    private YearReport loadYear(String year, AttendancePeriod period) {
+        List<Student> students = studentRepository.findByClassroom_Year(year);
+        List<Subject> subjects = referenceDataService.getSubjects(year);
+        AttendanceMatrix matrix = AttendanceMatrix.of(students, subjects, attendanceCounterService.countsForYear(year, period));
+        return new YearReport(year, year, students, subjects, matrix);
+    }
+
+    private void write(HttpServletResponse response, String fileName, ExportFormat format, List<YearReport> reports) throws IOException {
+        AttendanceReportWriter writer = writers.get(format);
+        response.setContentType(writer.contentType());
+        response.setHeader("Content-Disposition", "attachment; filename=" + fileName + writer.fileExtension());
+
+        try (ServletOutputStream outputStream = response.getOutputStream()) {
+            writer.write(reports, outputStream);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.classcount.service;
+
+import com.example.classcount.dto.AttendanceCell;
+import org.springframework.stereotype.Component;
+
+/**
+ * Formats attendance numbers for pages and exports, e.g. {@code ${@attendanceFormatter.ratio(cell)}}
+ * in a template. Percentages are rounded half-up to two decimals in integer arithmetic, so no format
+ * pattern is parsed and no double is printed for each cell.
+ */
+@Component
+public class AttendanceFormatter {
+
+    /** "present/total", e.g. "7/9". */
+    public String ratio(AttendanceCell cell) {
+        return cell.present() + "/" + cell.total();
+    }
+
+    /** "present/total (percentage%)", e.g. "7/9 (77.78%)"; a cell without classes reads "0/0 (0.00%)". */
+    public String ratioWithPercentage(AttendanceCell cell) {
+        return ratio(cell) + " (" + percentage(cell.present(), cell.total()) + "%)";
+    }
+
+    /** The share of classes attended with two decimals and no sign, e.g. "77.78"; "0.00" without classes. */
+    public String percentage(int present, int total) {
+        if (total <= 0) {
+            return "0.00";
+        }
+        // present / total in hundredths of a percent, rounded half-up
+        long hundredths = (present * 20_000L + total) / (2L * total);
+        long fraction = hundredths % 100;
+        return (hundredths / 100) + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.classcount.service;
+
+import com.example.classcount.dto.AttendanceCount;
+import com.example.classcount.entity.Student;
+import com.example.classcount.entity.Subject;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Present/total attendance of a year laid out as a dense students x subjects grid.
+ * Rows and columns follow the order of the given student and subject lists; ids are mapped to
+ * those positions through primitive hash tables, and the counts live in flat int arrays.
+ * Building the grid therefore allocates a handful of arrays sized by the roster, however
+ * many counts are added, and reading a cell allocates nothing.
+ */
+public final class AttendanceMatrix {
+
+    private final List<Student> students;
+    private final List<Subject> subjects;
+    private final IdIndex studentIndex;
+    private final IdIndex subjectIndex;
+    private final int[] present;
+    private final int[] total;
+    private final int[] rowPresent;
+    private final int[] rowTotal;
+
+    private AttendanceMatrix(List<Student> students, List<Subject> subjects) {
+        this.students = students;
+        this.subjects = subjects;
+        this.studentIndex = new IdIndex(students.stream().mapToLong(Student::getId).toArray());
+        this.subjectIndex = new IdIndex(subjects.stream().mapToLong(Subject::getId).toArray());
+        this.present = new int[students.size() * subjects.size()];
+        this.total = new int[students.size() * subjects.size()];
+        this.rowPresent = new int[students.size()];
+        this.rowTotal = new int[students.size()];
+    }
+
+    /**
+     * Lays out the given counts. Counts of students outside the list are ignored; counts of
+     * subjects outside the list still contribute to the student's overall totals.
+     */
+    public static AttendanceMatrix of(List<Student> students, List<Subject> subjects, List<AttendanceCount> counts) {
+        AttendanceMatrix matrix = new AttendanceMatrix(students, subjects);
+        for (AttendanceCount count : counts) {
+            matrix.add(count.studentId(), count.subjectId(), count.presentCount().intValue(), count.totalCount().intValue());
+        }
+        return matrix;
+    }
+
+    private void add(long studentId, long subjectId, int presentCount, int totalCount) {
+        int row = studentIndex.indexOf(studentId);
+        if (row < 0) {
+            return;
+        }
+        rowPresent[row] += presentCount;
+        rowTotal[row] += totalCount;
+
+        int column = subjectIndex.indexOf(subjectId);
+        if (column >= 0) {
+            int cell = row * subjects.size() + column;
+            present[cell] += presentCount;
+            total[cell] += totalCount;
+        }
+    }
+
+    public List<Student> students() {
+        return students;
+    }
+
+    public List<Subject> subjects() {
+        return subjects;
+    }
+
+    public int present(int row, int column) {
+        return present[row * subjects.size() + column];
+    }
+
+    public int total(int row, int column) {
+        return total[row * subjects.size() + column];
+    }
+
+    /** Classes attended by a student across all subjects. */
+    public int rowPresent(int row) {
+        return rowPresent[row];
+    }
+
+    /** Classes held for a student across all subjects. */
+    public int rowTotal(int row) {
+        return rowTotal[row];
+    }
+
+    /**
+     * Maps ids to their position in the original list through an open-addressing table of
+     * primitive keys, so lookups neither box the id nor allocate.
+     */
+    static final class IdIndex {
+
+        private final long[] keys;
+        private final int[] positions;
+        private final int mask;
+
+        IdIndex(long[] ids) {
+            // Power-of-two capacity of at least twice the ids keeps probe sequences short
+            int capacity = Integer.highestOneBit(Math.max(ids.length, 1) * 2 - 1) << 1;
+            keys = new long[capacity];
+            positions = new int[capacity];
+            mask = capacity - 1;
+            Arrays.fill(positions, -1);
+            for (int i = 0; i < ids.length; i++) {
+                int slot = slot(ids[i]);
+                while (positions[slot] >= 0 && keys[slot] != ids[i]) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = ids[i];
+                positions[slot] = i;
+            }
+        }
+
+        int indexOf(long id) {
+            for (int slot = slot(id); positions[slot] >= 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == id) {
+                    return positions[slot];
+                }
+            }
+            return -1;
+        }
+
+        // Sequential database ids are spread over the table by a multiplicative hash
+        int slot(long id) {
+            long hash = id * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.classcount.service;
+
+import java.time.LocalDate;
+
+/**
+ * The dates a report covers: all time, or {@code from} to {@code to} inclusive.
+ * Periods are resolved from request parameters by {@link TermCalendar#resolvePeriod}.
+ */
+public record AttendancePeriod(String label, LocalDate from, LocalDate to) {
+
+    private static final AttendancePeriod ALL_TIME = new AttendancePeriod("All time", null, null);
+
+    public static AttendancePeriod allTime() {
+        return ALL_TIME;
+    }
+
+    public static AttendancePeriod between(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("The start date " + from + " is after the end date " + to + ".");
+        }
+        return new AttendancePeriod(from + " to " + to, from, to);
+    }
+
+    public boolean isAllTime() {
+        return from == null;
+    }
+
+    // Identifies the period in cache keys
+    public String key() {
+        return isAllTime() ? "all" : from + ".." + to;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.classcount.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes aggregated attendance reports in one export format. Implementations stream to the given output
+ * and leave closing it to the caller.
+ */
+public interface AttendanceReportWriter {
+
+    ExportFormat format();
+
+    String contentType();
+
+    // Appended to the download's base file name, including the dot
+    String fileExtension();
+
+    void write(List<YearReport> reports, OutputStream output) throws IOException;
+}
@@ -0,0 +1,117 @@
+package com.example.classcount.service;
+
+import com.example.classcount.event.YearDataChangedEvent;
+import com.example.classcount.repository.AttendanceCounterRepository;
+import com.example.classcount.repository.AttendanceRepository;
+import com.example.classcount.repository.StudentRepository;
+import com.example.classcount.repository.SubjectRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Resets a year's attendance as a background job. Students are taken a batch at a time and each batch's
+ * counters and attendance are deleted in their own short transaction, with a pause between batches, so
+ * attendance being saved meanwhile only ever waits behind one small batch.
+ */
+@Service
+public class AttendanceResetService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceResetService.class);
+
+    private final StudentRepository studentRepository;
+    private final SubjectRepository subjectRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceCounterRepository attendanceCounterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BackgroundJobRegistry<ResetJob> jobs;
+
+    @Value("${classcount.reset.batch-size:100}")
+    private int batchSize;
+
+    @Value("${classcount.reset.pause-ms:200}")
+    private long pauseMs;
+
+    public AttendanceResetService(StudentRepository studentRepository, SubjectRepository subjectRepository,
+                                  AttendanceRepository attendanceRepository, AttendanceCounterRepository attendanceCounterRepository,
+                                  TransactionTemplate transactionTemplate, @Qualifier("resetExecutor") TaskExecutor resetExecutor,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.studentRepository = studentRepository;
+        this.subjectRepository = subjectRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.attendanceCounterRepository = attendanceCounterRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.jobs = new BackgroundJobRegistry<>(resetExecutor);
+    }
+
+    /**
+     * Queues a reset of the year's attendance and returns immediately, or returns the reset already
+     * running for the year. Empty when the year has no students.
+     * @throws TaskRejectedException if the reset queue is full.
+     */
+    public synchronized Optional<ResetJob> submit(String year) {
+        Optional<ResetJob> running = jobs.findUnfinished(year);
+        if (running.isPresent()) {
+            return running;
+        }
+
+        long students = studentRepository.countByClassroom_Year(year);
+        if (students == 0) {
+            return Optional.empty();
+        }
+
+        ResetJob job = new ResetJob(year, (int) students);
+        return Optional.of(jobs.submit(job, () -> run(job)));
+    }
+
+    public Optional<ResetJob> findJob(String jobId) {
+        return jobs.find(jobId);
+    }
+
+    private void run(ResetJob job) {
+        job.started();
+        try {
+            long afterId = 0L;
+            List<Long> batch;
+            while (!(batch = studentRepository.findIdsByYearAfter(job.getYear(), afterId, Limit.of(batchSize))).isEmpty()) {
+                List<Long> studentIds = batch;
+                Integer deleted = transactionTemplate.execute(status -> {
+                    // The subject locks saveAttendance takes: saves in progress finish first, and saves that start
+                    // meanwhile wait and then read the marks as deleted, so none applies counter deltas to them
+                    subjectRepository.findLockedByClassroom_YearOrderByIdAsc(job.getYear());
+                    attendanceCounterRepository.deleteByStudentIdIn(studentIds);
+                    return attendanceRepository.deleteByStudentIdIn(studentIds);
+                });
+                job.batchDeleted(studentIds.size(), deleted != null ? deleted : 0);
+                eventPublisher.publishEvent(new YearDataChangedEvent(job.getYear()));
+
+                if (studentIds.size() < batchSize) {
+                    break;
+                }
+                afterId = studentIds.get(studentIds.size() - 1);
+                // Let attendance saves waiting on these tables through before the next batch
+                Thread.sleep(pauseMs);
+            }
+            job.completed();
+            logger.info("Reset attendance of {}: {}", job.getYear(), job.toStatus());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.failed("The reset was interrupted.");
+        } catch (Exception e) {
+            logger.error("Attendance reset {} for {} failed: {}", job.getId(), job.getYear(), e.getMessage(), e);
+            job.failed(e.getMessage());
+        }
+    }
+}
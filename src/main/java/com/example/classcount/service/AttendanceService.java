@@ -1,99 +1,208 @@
 package com.example.classcount.service;
 
-import com.example.classcount.entity.Attendance;
+import com.example.classcount.config.CacheConfig;
+import com.example.classcount.dto.AttendanceCell;
+import com.example.classcount.dto.AttendanceCount;
+import com.example.classcount.dto.AttendanceRecord;
+import com.example.classcount.dto.AttendanceSummaryPage;
+import com.example.classcount.dto.StudentAttendanceRow;
 import com.example.classcount.entity.Student;
 import com.example.classcount.entity.Subject;
+import com.example.classcount.event.YearDataChangedEvent;
+import com.example.classcount.repository.AttendanceCounterRepository;
 import com.example.classcount.repository.AttendanceRepository;
 import com.example.classcount.repository.StudentRepository;
 import com.example.classcount.repository.SubjectRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 public class AttendanceService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceService.class);
+
+    private static final String INSERT_ATTENDANCE_SQL =
+            "INSERT INTO attendance (student_id, subject_id, date, is_present) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_ATTENDANCE_SQL =
+            "UPDATE attendance SET is_present = ? WHERE student_id = ? AND subject_id = ? AND date = ?";
+
     private final StudentRepository studentRepository;
     private final SubjectRepository subjectRepository;
     private final AttendanceRepository attendanceRepository;
+    private final AttendanceCounterRepository attendanceCounterRepository;
+    private final AttendanceCounterService attendanceCounterService;
+    private final ReferenceDataService referenceDataService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${classcount.attendance.batch-size:100}")
+    private int batchSize;
+
+    @Value("${classcount.attendance.save-latency-target-ms:250}")
+    private long saveLatencyTargetMs;
 
     // ✅ FIXED: Proper constructor injection for all three repositories
     public AttendanceService(StudentRepository studentRepository,
                              SubjectRepository subjectRepository,
-                             AttendanceRepository attendanceRepository) {
+                             AttendanceRepository attendanceRepository,
+                             AttendanceCounterRepository attendanceCounterRepository,
+                             AttendanceCounterService attendanceCounterService,
+                             ReferenceDataService referenceDataService,
+                             JdbcTemplate jdbcTemplate,
+                             ApplicationEventPublisher eventPublisher) {
         this.studentRepository = studentRepository;
         this.subjectRepository = subjectRepository;
         this.attendanceRepository = attendanceRepository;
+        this.attendanceCounterRepository = attendanceCounterRepository;
+        this.attendanceCounterService = attendanceCounterService;
+        this.referenceDataService = referenceDataService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
-     * Retrieves and calculates the attendance summary for a specific academic year.
+     * Brings the attendance of a subject on the given date in line with the submitted marks.
+     * The day's existing marks are read once and compared with the submission: new students are
+     * inserted, only marks whose present flag changed are updated, and students no longer submitted
+     * are deleted. Inserts and updates go to the database as JDBC batches, so re-marking a class
+     * costs a few statements instead of a delete and rewrite of every row. The attendance counters
+     * receive the same changes as deltas within the same transaction. Saves of the same subject are
+     * serialized on the subject's row, so two submissions never diff against the same stale marks.
      */
-    public Map<String, Object> getAttendanceSummaryForYear(String year) {
-        // Fetch students belonging to the given year
-        List<Student> students = studentRepository.findByClassroom_Year(year);
+    @Transactional
+    public int saveAttendance(Subject subject, LocalDate date, List<Long> studentIds, List<Long> presentStudentIds) {
+        long start = System.nanoTime();
 
-        // Fetch subjects taught in that year
-        List<Subject> subjects = subjectRepository.findByClassroom_Year(year);
+        // Taken before any other read, so the marks read below include every save committed before this one
+        subjectRepository.findLockedById(subject.getId())
+                .orElseThrow(() -> new IllegalArgumentException("Invalid subject ID."));
 
-        // Fetch all attendance records and filter those relevant to the year
-        List<Attendance> attendanceForYear = attendanceRepository.findAll().stream()
-                .filter(a -> a.getStudent().getClassroom().getYear().equals(year))
-                .collect(Collectors.toList());
+        List<Student> students = studentRepository.findAllById(studentIds);
+        if (students.size() != new HashSet<>(studentIds).size()) {
+            throw new IllegalArgumentException("Invalid student ID.");
+        }
+        Set<Long> present = new HashSet<>(presentStudentIds);
 
-        // Maps to hold calculated data
-        Map<Long, Map<Long, String>> studentSubjectAttendance = new HashMap<>();
-        Map<Long, String> studentOverallAttendance = new HashMap<>();
+        // Marks already taken today, keyed by student id
+        Map<Long, Boolean> existing = new HashMap<>();
+        for (AttendanceRecord record : attendanceRepository.findRecordsBySubjectAndDate(subject, date)) {
+            existing.put(record.studentId(), record.present());
+        }
 
-        // Loop through each student to calculate attendance
+        List<Long> inserts = new ArrayList<>();
+        List<Long> updates = new ArrayList<>();
+        // Counter changes per student: {present delta, total delta}
+        Map<Long, int[]> counterDeltas = new HashMap<>();
         for (Student student : students) {
-            Map<Long, Integer> presentCount = new HashMap<>();
-            Map<Long, Integer> totalCount = new HashMap<>();
-            int overallPresent = 0;
-            int overallTotal = 0;
-
-            for (Attendance att : attendanceForYear) {
-                if (att.getStudent().getId().equals(student.getId())) {
-                    long subjectId = att.getSubject().getId();
-                    totalCount.put(subjectId, totalCount.getOrDefault(subjectId, 0) + 1);
-                    if (att.isPresent()) {
-                        presentCount.put(subjectId, presentCount.getOrDefault(subjectId, 0) + 1);
-                        overallPresent++;
-                    }
-                    overallTotal++;
-                }
+            Long studentId = student.getId();
+            boolean isPresent = present.contains(studentId);
+            Boolean previous = existing.remove(studentId);
+            if (previous == null) {
+                inserts.add(studentId);
+                counterDeltas.put(studentId, new int[]{isPresent ? 1 : 0, 1});
+            } else if (previous != isPresent) {
+                updates.add(studentId);
+                counterDeltas.put(studentId, new int[]{isPresent ? 1 : -1, 0});
             }
+        }
 
-            // Format per-subject attendance
-            Map<Long, String> subjectAttendance = new HashMap<>();
-            for (Subject subject : subjects) {
-                int p = presentCount.getOrDefault(subject.getId(), 0);
-                int t = totalCount.getOrDefault(subject.getId(), 0);
-                subjectAttendance.put(subject.getId(), p + "/" + t);
-            }
-            studentSubjectAttendance.put(student.getId(), subjectAttendance);
-
-            // Format overall attendance
-            String overallFormatted = overallPresent + "/" + overallTotal;
-            if (overallTotal > 0) {
-                double percentage = (double) overallPresent / overallTotal * 100;
-                overallFormatted += " (" + String.format("%.2f", percentage) + "%)";
-            } else {
-                overallFormatted = "0/0 (0.00%)";
-            }
-            studentOverallAttendance.put(student.getId(), overallFormatted);
+        // Whatever is left in the map was not part of this submission
+        if (!existing.isEmpty()) {
+            attendanceRepository.deleteBySubjectAndDateAndStudentIdIn(subject, date, existing.keySet());
+            existing.forEach((studentId, wasPresent) -> counterDeltas.put(studentId, new int[]{wasPresent ? -1 : 0, -1}));
         }
 
-        // Prepare the final summary map
-        Map<String, Object> summary = new HashMap<>();
-        summary.put("students", students);
-        summary.put("subjects", subjects);
-        summary.put("studentSubjectAttendance", studentSubjectAttendance);
-        summary.put("studentOverallAttendance", studentOverallAttendance);
+        jdbcTemplate.batchUpdate(INSERT_ATTENDANCE_SQL, inserts, batchSize, (ps, studentId) -> {
+            ps.setLong(1, studentId);
+            ps.setLong(2, subject.getId());
+            ps.setObject(3, date);
+            ps.setBoolean(4, present.contains(studentId));
+        });
+        jdbcTemplate.batchUpdate(UPDATE_ATTENDANCE_SQL, updates, batchSize, (ps, studentId) -> {
+            ps.setBoolean(1, present.contains(studentId));
+            ps.setLong(2, studentId);
+            ps.setLong(3, subject.getId());
+            ps.setObject(4, date);
+        });
+        attendanceCounterService.applyDeltas(subject.getId(), date, counterDeltas);
+        eventPublisher.publishEvent(new YearDataChangedEvent(subject.getClassroom().getYear()));
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        if (elapsedMs > saveLatencyTargetMs) {
+            logger.warn("Saving attendance for {} students of subject {} took {} ms (target {} ms)",
+                    students.size(), subject.getId(), elapsedMs, saveLatencyTargetMs);
+        } else {
+            logger.debug("Saved attendance for {} students of subject {} in {} ms ({} inserted, {} updated, {} deleted)",
+                    students.size(), subject.getId(), elapsedMs, inserts.size(), updates.size(), existing.size());
+        }
+        return students.size();
+    }
+
+    /**
+     * Deletes a subject together with its attendance and counters.
+     */
+    @Transactional
+    public void deleteSubject(Subject subject) {
+        String year = subject.getClassroom().getYear();
+        attendanceCounterRepository.deleteBySubjectId(subject.getId());
+        attendanceRepository.deleteBySubjectId(subject.getId());
+        subjectRepository.delete(subject);
+        eventPublisher.publishEvent(new YearDataChangedEvent(year));
+    }
+
+    /**
+     * Retrieves one page of the attendance summary of an academic year over the given period: up to
+     * {@code size} students after {@code afterStudentId} (from the start when null), ordered by id, with a
+     * cell per subject. Only the page's students and their counts for the period are read, so a page costs
+     * the same however large the year and its history are. Pages are cached and every page of a year is
+     * evicted by {@link YearDataChangedEvent}.
+     */
+    @Cacheable(cacheNames = CacheConfig.ATTENDANCE_SUMMARIES,
+            key = ReferenceDataService.CLASSROOM_YEAR_KEY + " + '|' + #period.key() + '|' + #afterStudentId + '|' + #size")
+    public AttendanceSummaryPage getSummaryPage(String year, AttendancePeriod period, Long afterStudentId, int size) {
+        // One student more than requested tells whether another page follows
+        List<Student> students = studentRepository.findByClassroom_YearAndIdGreaterThanOrderByIdAsc(
+                year, afterStudentId != null ? afterStudentId : 0L, Limit.of(size + 1));
+        boolean hasMore = students.size() > size;
+        if (hasMore) {
+            students = students.subList(0, size);
+        }
+
+        // Fetch subjects taught in that year
+        List<Subject> subjects = referenceDataService.getSubjects(year);
+
+        // Lay the page's present/total counts for the period out as a students x subjects grid
+        List<Long> studentIds = students.stream().map(Student::getId).toList();
+        List<AttendanceCount> counts = attendanceCounterService.countsForStudents(year, studentIds, period);
+        AttendanceMatrix matrix = AttendanceMatrix.of(students, subjects, counts);
+
+        List<StudentAttendanceRow> rows = new ArrayList<>(students.size());
+        for (int row = 0; row < students.size(); row++) {
+            Student student = students.get(row);
+            AttendanceCell[] cells = new AttendanceCell[subjects.size()];
+            for (int column = 0; column < cells.length; column++) {
+                cells[column] = new AttendanceCell(matrix.present(row, column), matrix.total(row, column));
+            }
+            AttendanceCell overall = new AttendanceCell(matrix.rowPresent(row), matrix.rowTotal(row));
+            rows.add(new StudentAttendanceRow(student.getId(), student.getName(), List.of(cells), overall));
+        }
 
-        return summary;
+        Long nextAfterStudentId = hasMore ? students.get(students.size() - 1).getId() : null;
+        return new AttendanceSummaryPage(year, subjects, List.copyOf(rows), nextAfterStudentId);
     }
 }
@@ -0,0 +1,63 @@
+package com.example.classcount.service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Lifecycle shared by the background jobs (student imports, attendance resets). The state is updated by
+ * the worker thread and read by status requests; subclasses add their own progress counters.
+ */
+public abstract class BackgroundJob {
+
+    public enum State { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String year;
+
+    private volatile State state = State.QUEUED;
+    private volatile String errorMessage;
+    private volatile Instant finishedAt;
+
+    protected BackgroundJob(String year) {
+        this.year = year;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getYear() {
+        return year;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    void started() {
+        state = State.RUNNING;
+    }
+
+    void completed() {
+        this.finishedAt = Instant.now();
+        this.state = State.COMPLETED;
+    }
+
+    void failed(String errorMessage) {
+        this.errorMessage = errorMessage;
+        this.finishedAt = Instant.now();
+        this.state = State.FAILED;
+    }
+}
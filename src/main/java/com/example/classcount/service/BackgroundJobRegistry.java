@@ -0,0 +1,59 @@
+package com.example.classcount.service;
+
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The background jobs of one kind and the executor that runs them. Jobs can be looked up by id while
+ * they run and for an hour after they finish; older finished jobs are dropped as new ones are submitted.
+ */
+final class BackgroundJobRegistry<J extends BackgroundJob> {
+
+    // Finished jobs stay queryable for this long
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(1);
+
+    private final TaskExecutor executor;
+    private final Map<String, J> jobs = new ConcurrentHashMap<>();
+
+    BackgroundJobRegistry(TaskExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Registers the job and queues its work on the executor.
+     * @throws TaskRejectedException if the executor's queue is full; the job is not registered then.
+     */
+    J submit(J job, Runnable work) {
+        evictFinishedJobs();
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(work);
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    Optional<J> find(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    // A queued or running job for the year, if there is one
+    Optional<J> findUnfinished(String year) {
+        return jobs.values().stream()
+                .filter(job -> job.getYear().equals(year) && !job.isFinished())
+                .findFirst();
+    }
+
+    private void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minus(FINISHED_JOB_RETENTION);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.classcount.service;
+
+import com.example.classcount.entity.Subject;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes reports as UTF-8 CSV (RFC 4180 quoting), streamed straight to the output through a small buffer.
+ * Each year is a section with its own header row, since years have different subjects, and sections
+ * are separated by an empty line. The first column names the year so sections can be told apart.
+ * Names that a spreadsheet would run as a formula are written with a leading apostrophe.
+ */
+@Component
+public class CsvReportWriter implements AttendanceReportWriter {
+
+    private static final int BUFFER_CHARS = 64 * 1024;
+
+    private final AttendanceFormatter attendanceFormatter;
+
+    public CsvReportWriter(AttendanceFormatter attendanceFormatter) {
+        this.attendanceFormatter = attendanceFormatter;
+    }
+
+    @Override
+    public ExportFormat format() {
+        return ExportFormat.CSV;
+    }
+
+    @Override
+    public String contentType() {
+        return "text/csv; charset=UTF-8";
+    }
+
+    @Override
+    public String fileExtension() {
+        return ".csv";
+    }
+
+    @Override
+    public void write(List<YearReport> reports, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_CHARS);
+        for (int index = 0; index < reports.size(); index++) {
+            if (index > 0) {
+                writer.write("\r\n");
+            }
+            writeSection(writer, reports.get(index));
+        }
+        // Flush only: the caller owns the output stream
+        writer.flush();
+    }
+
+    private void writeSection(Writer writer, YearReport report) throws IOException {
+        List<Subject> subjects = report.subjects();
+        AttendanceMatrix matrix = report.matrix();
+
+        writeField(writer, "Year");
+        writer.write(',');
+        writeField(writer, "Student Name");
+        for (Subject subject : subjects) {
+            writer.write(',');
+            writeField(writer, subject.getName());
+        }
+        writer.write(",Overall %\r\n");
+
+        String year = report.year();
+        for (int row = 0; row < report.students().size(); row++) {
+            writeField(writer, year);
+            writer.write(',');
+            writeField(writer, report.students().get(row).getName());
+            for (int column = 0; column < subjects.size(); column++) {
+                writer.write(',');
+                writer.write(Integer.toString(matrix.present(row, column)));
+                writer.write('/');
+                writer.write(Integer.toString(matrix.total(row, column)));
+            }
+            writer.write(',');
+            writer.write(attendanceFormatter.percentage(matrix.rowPresent(row), matrix.rowTotal(row)));
+            writer.write("%\r\n");
+        }
+    }
+
+    // Quotes a field that contains a separator, quote or line break, doubling any quotes inside it
+    private void writeField(Writer writer, String value) throws IOException {
+        if (startsLikeFormula(value)) {
+            value = "'" + value;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    // Spreadsheet apps evaluate a cell starting with one of these as a formula (CSV injection)
+    private static boolean startsLikeFormula(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        char first = value.charAt(0);
+        return first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+    }
+}
@@ -1,81 +1,184 @@
 package com.example.classcount.service;
 
+import com.example.classcount.dto.StudentImportResult;
 import com.example.classcount.entity.Classroom;
-import com.example.classcount.entity.Student;
 import com.example.classcount.repository.StudentRepository;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 @Service
 public class ExcelImportService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ExcelImportService.class);
+
+    private static final String INSERT_STUDENT_SQL =
+            "INSERT INTO students (name, roll_number, classroom_id) VALUES (?, ?, ?)";
+
     private final StudentRepository studentRepository;
+    private final JdbcTemplate jdbcTemplate;
 
-    public ExcelImportService(StudentRepository studentRepository) {
+    @Value("${classcount.import.batch-size:500}")
+    private int batchSize;
+
+    public ExcelImportService(StudentRepository studentRepository, JdbcTemplate jdbcTemplate) {
         this.studentRepository = studentRepository;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     /**
-     * Processes the uploaded Excel file, extracts student data, and saves new Student entities.
+     * Processes an uploaded Excel file, extracts student data, and saves new Student entities.
      * Assumes Excel format is: Column 0 (Roll Number), Column 1 (Student Name).
-     * @param file The uploaded .xlsx file.
+     * The first sheet is parsed as a SAX event stream and students are written in fixed-size JDBC
+     * batches as rows arrive, so neither the workbook nor the full roster is held in memory.
+     * Roll numbers already in the database or repeated within the file are skipped and reported.
+     * @param file The uploaded .xlsx file, saved to disk so POI can read zip entries on demand.
      * @param classroom The Classroom entity (Year) to link the students to.
-     * @return The count of students successfully imported.
+     * @param job Receives parsed/inserted/skipped/failed counts as the import progresses.
+     * @return The count of students imported and the roll numbers that were skipped.
      */
-    public int importStudents(MultipartFile file, Classroom classroom) { // REMOVED section parameter
-        List<Student> students = new ArrayList<>();
-        int savedCount = 0;
-
-        try (InputStream inputStream = file.getInputStream()) {
-            Workbook workbook = new XSSFWorkbook(inputStream);
-            Sheet sheet = workbook.getSheetAt(0);
-
-            // Iterate over every row, starting from the second row (skipping headers)
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row currentRow = sheet.getRow(i);
-
-                if (currentRow == null || currentRow.getCell(0) == null) continue;
-
-                // Column 0 (A): Roll Number
-                Cell rollNumberCell = currentRow.getCell(0);
-                String rollNumber = "";
-
-                if (rollNumberCell.getCellType() == CellType.STRING) {
-                    rollNumber = rollNumberCell.getStringCellValue();
-                } else if (rollNumberCell.getCellType() == CellType.NUMERIC) {
-                    rollNumber = String.valueOf((long) rollNumberCell.getNumericCellValue());
-                } else {
-                    continue;
-                }
+    public StudentImportResult importStudents(Path file, Classroom classroom, ImportJob job) throws Exception {
+        // One query loads every existing roll number; the file is then deduplicated against it in a single pass
+        Set<String> knownRollNumbers = new HashSet<>();
+        for (String rollNumber : studentRepository.findAllRollNumbers()) {
+            knownRollNumbers.add(rollNumberKey(rollNumber));
+        }
+        StudentRowHandler handler = new StudentRowHandler(classroom.getId(), knownRollNumbers, job);
+
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return new StudentImportResult(0, List.of());
+            }
 
-                // Column 1 (B): Student Name
-                Cell nameCell = currentRow.getCell(1);
-                String studentName = nameCell.getStringCellValue();
-
-                // Basic validation and object creation
-                if (!studentName.isBlank() && !rollNumber.isBlank()) {
-                    Student student = new Student();
-                    student.setRollNumber(rollNumber);
-                    student.setName(studentName);
-                    student.setClassroom(classroom);
-                    // NOTE: The student entity should no longer have setSection()
-                    students.add(student);
-                }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(
+                        reader.getStylesTable(), null, strings, handler, new DataFormatter(), false));
+                parser.parse(new InputSource(sheet));
             }
+        }
 
-            studentRepository.saveAll(students);
-            savedCount = students.size();
+        handler.flush();
+        return new StudentImportResult(handler.savedCount, handler.skippedRollNumbers);
+    }
+
+    // The unique key on students.roll_number uses MySQL's case-insensitive collation, so "r1" clashes with "R1"
+    private static String rollNumberKey(String rollNumber) {
+        return rollNumber.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Receives the cells of each row from the SAX parser and buffers complete students
+     * until a batch is full.
+     */
+    private class StudentRowHandler implements SheetContentsHandler {
+
+        private final Long classroomId;
+        private final Set<String> knownRollNumbers;
+        private final ImportJob job;
+        private final List<String[]> batch = new ArrayList<>();
+        private final List<String> skippedRollNumbers = new ArrayList<>();
+        private int savedCount;
+
+        private String rollNumber;
+        private String studentName;
+        private int currentColumn;
+
+        StudentRowHandler(Long classroomId, Set<String> knownRollNumbers, ImportJob job) {
+            this.classroomId = classroomId;
+            this.knownRollNumbers = knownRollNumbers;
+            this.job = job;
+        }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to import Excel data: " + e.getMessage());
+        @Override
+        public void startRow(int rowNum) {
+            rollNumber = null;
+            studentName = null;
+            currentColumn = -1;
         }
 
-        return savedCount;
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            currentColumn = cellReference != null ? new CellReference(cellReference).getCol() : currentColumn + 1;
+
+            // Column 0 (A): Roll Number, Column 1 (B): Student Name
+            if (currentColumn == 0) {
+                rollNumber = formattedValue.trim();
+            } else if (currentColumn == 1) {
+                studentName = formattedValue;
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            // Skip the header row
+            if (rowNum == 0) {
+                return;
+            }
+
+            // Basic validation before queueing the student
+            if (rollNumber == null || studentName == null || rollNumber.isBlank() || studentName.isBlank()) {
+                return;
+            }
+            job.rowParsed();
+
+            // add() is false when the roll number exists in the database or earlier in the file
+            if (!knownRollNumbers.add(rollNumberKey(rollNumber))) {
+                skippedRollNumbers.add(rollNumber);
+                job.rowSkipped();
+            } else {
+                batch.add(new String[]{rollNumber, studentName});
+                if (batch.size() >= batchSize) {
+                    flush();
+                }
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                jdbcTemplate.batchUpdate(INSERT_STUDENT_SQL, batch, batch.size(), (ps, student) -> {
+                    ps.setString(1, student[1]);
+                    ps.setString(2, student[0]);
+                    ps.setLong(3, classroomId);
+                });
+                savedCount += batch.size();
+                job.rowsInserted(batch.size());
+            } catch (DataAccessException e) {
+                // A failed batch (e.g. a roll number added concurrently) is counted and the import carries on
+                logger.warn("Import {}: batch of {} students failed: {}", job.getId(), batch.size(), e.getMessage());
+                job.rowsFailed(batch.size());
+            }
+            batch.clear();
+        }
     }
 }
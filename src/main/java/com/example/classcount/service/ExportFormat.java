@@ -0,0 +1,26 @@
+package com.example.classcount.service;
+
+import java.util.Arrays;
+
+/**
+ * The file formats attendance reports can be exported in, selected by the {@code format} request parameter.
+ */
+public enum ExportFormat {
+
+    XLSX("xlsx"),
+    CSV("csv"),
+    CSV_GZIP("csv-gzip");
+
+    private final String parameter;
+
+    ExportFormat(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public static ExportFormat fromParameter(String parameter) {
+        return Arrays.stream(values())
+                .filter(format -> format.parameter.equalsIgnoreCase(parameter))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown export format: " + parameter));
+    }
+}
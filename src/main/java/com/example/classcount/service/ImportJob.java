@@ -0,0 +1,49 @@
+package com.example.classcount.service;
+
+import com.example.classcount.dto.ImportJobStatus;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of one student import. Counters are updated by the import thread and read by status requests.
+ */
+public class ImportJob extends BackgroundJob {
+
+    private final AtomicInteger parsed = new AtomicInteger();
+    private final AtomicInteger inserted = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private volatile List<String> skippedRollNumbers = List.of();
+
+    public ImportJob(String year) {
+        super(year);
+    }
+
+    void rowParsed() {
+        parsed.incrementAndGet();
+    }
+
+    void rowSkipped() {
+        skipped.incrementAndGet();
+    }
+
+    void rowsInserted(int count) {
+        inserted.addAndGet(count);
+    }
+
+    void rowsFailed(int count) {
+        failed.addAndGet(count);
+    }
+
+    void completed(List<String> skippedRollNumbers) {
+        this.skippedRollNumbers = skippedRollNumbers;
+        completed();
+    }
+
+    public ImportJobStatus toStatus() {
+        return new ImportJobStatus(getId(), getYear(), getState().name(), parsed.get(), inserted.get(), skipped.get(),
+                failed.get(), skippedRollNumbers, getErrorMessage());
+    }
+}
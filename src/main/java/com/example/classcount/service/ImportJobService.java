@@ -0,0 +1,77 @@
+package com.example.classcount.service;
+
+import com.example.classcount.dto.StudentImportResult;
+import com.example.classcount.entity.Classroom;
+import com.example.classcount.event.YearDataChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class ImportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportJobService.class);
+
+    // Skipped roll numbers kept on a finished job; the rest are only counted
+    private static final int MAX_REPORTED_SKIPS = 20;
+
+    private final ExcelImportService excelImportService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BackgroundJobRegistry<ImportJob> jobs;
+
+    public ImportJobService(ExcelImportService excelImportService, @Qualifier("importExecutor") TaskExecutor importExecutor,
+                            ApplicationEventPublisher eventPublisher) {
+        this.excelImportService = excelImportService;
+        this.eventPublisher = eventPublisher;
+        this.jobs = new BackgroundJobRegistry<>(importExecutor);
+    }
+
+    /**
+     * Queues an import of the uploaded roster and returns immediately. The upload is copied to a temp
+     * file first because the multipart data is discarded once the request completes.
+     * @throws TaskRejectedException if the import queue is full.
+     */
+    public ImportJob submit(MultipartFile file, Classroom classroom) throws IOException {
+        Path tempFile = Files.createTempFile("student-import-", ".xlsx");
+        file.transferTo(tempFile);
+
+        ImportJob job = new ImportJob(classroom.getYear());
+        try {
+            return jobs.submit(job, () -> run(job, tempFile, classroom));
+        } catch (TaskRejectedException e) {
+            tempFile.toFile().delete();
+            throw e;
+        }
+    }
+
+    public Optional<ImportJob> findJob(String jobId) {
+        return jobs.find(jobId);
+    }
+
+    private void run(ImportJob job, Path file, Classroom classroom) {
+        job.started();
+        try {
+            StudentImportResult result = excelImportService.importStudents(file, classroom, job);
+            List<String> skipped = result.skippedRollNumbers();
+            job.completed(List.copyOf(skipped.subList(0, Math.min(skipped.size(), MAX_REPORTED_SKIPS))));
+        } catch (Exception e) {
+            logger.error("Student import {} for {} failed: {}", job.getId(), classroom.getYear(), e.getMessage(), e);
+            job.failed(e.getMessage());
+        } finally {
+            file.toFile().delete();
+            // Batches written before a failure are committed too, so the year has changed either way
+            eventPublisher.publishEvent(new YearDataChangedEvent(classroom.getYear()));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.classcount.service;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Rows read from the database one keyset chunk at a time, only as iteration reaches them.
+ * Each chunk is a separate short query for the rows after the last key seen, so at most one
+ * chunk is held in memory and no connection stays open between chunks. Handed to a template,
+ * it lets Thymeleaf write rows out while later ones have not been read yet.
+ * Iterating it again runs the queries again.
+ */
+public final class KeysetIterable<T> implements Iterable<T> {
+
+    private final LongFunction<List<T>> fetchAfter;
+    private final ToLongFunction<T> keyOf;
+    private final int chunkSize;
+
+    /**
+     * @param fetchAfter returns up to {@code chunkSize} rows with a key greater than the given one, in key order.
+     * @param keyOf the (positive) key of a row.
+     */
+    public KeysetIterable(LongFunction<List<T>> fetchAfter, ToLongFunction<T> keyOf, int chunkSize) {
+        this.fetchAfter = fetchAfter;
+        this.keyOf = keyOf;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private List<T> chunk = List.of();
+            private int position;
+            private long lastKey;
+            private boolean lastChunk;
+
+            @Override
+            public boolean hasNext() {
+                if (position < chunk.size()) {
+                    return true;
+                }
+                if (lastChunk) {
+                    return false;
+                }
+                chunk = fetchAfter.apply(lastKey);
+                position = 0;
+                // A short chunk means the rows ran out; no need to ask again
+                lastChunk = chunk.size() < chunkSize;
+                return !chunk.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T row = chunk.get(position++);
+                lastKey = keyOf.applyAsLong(row);
+                return row;
+            }
+        };
+    }
+}
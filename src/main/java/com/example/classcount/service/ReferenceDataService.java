@@ -0,0 +1,63 @@
+package com.example.classcount.service;
+
+import com.example.classcount.config.CacheConfig;
+import com.example.classcount.entity.Classroom;
+import com.example.classcount.entity.Subject;
+import com.example.classcount.repository.ClassroomRepository;
+import com.example.classcount.repository.SubjectRepository;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cached access to the classrooms and the subjects of each year. This data changes a few times
+ * per term, so pages read it from memory instead of querying it on every request.
+ * The returned entities are shared between requests and must not be modified.
+ */
+@Service
+public class ReferenceDataService {
+
+    /**
+     * Cache key of a year's entries: the year as its classroom spells it. Years from URLs match their classroom
+     * ignoring case and accents, while evictions use the classroom's own spelling, so entries keyed on the URL
+     * spelling would never be evicted. The lookup goes through this bean's proxy and is cached itself.
+     */
+    public static final String CLASSROOM_YEAR_KEY = "(@referenceDataService.findClassroom(#year).orElse(null)?.year ?: #year)";
+
+    private final ClassroomRepository classroomRepository;
+    private final SubjectRepository subjectRepository;
+
+    public ReferenceDataService(ClassroomRepository classroomRepository, SubjectRepository subjectRepository) {
+        this.classroomRepository = classroomRepository;
+        this.subjectRepository = subjectRepository;
+    }
+
+    @Cacheable(cacheNames = CacheConfig.CLASSROOMS, key = "'all'")
+    public List<Classroom> getClassrooms() {
+        return List.copyOf(classroomRepository.findAll());
+    }
+
+    // A cache of its own: sharing the list's cache would hand the list back for a year named "all"
+    @Cacheable(cacheNames = CacheConfig.CLASSROOMS_BY_YEAR, key = "#year")
+    public Optional<Classroom> findClassroom(String year) {
+        return classroomRepository.findByYear(year);
+    }
+
+    /**
+     * The subjects taught in a year, loaded with their classroom so they stay usable outside the session.
+     */
+    @Cacheable(cacheNames = CacheConfig.SUBJECTS, key = CLASSROOM_YEAR_KEY)
+    public List<Subject> getSubjects(String year) {
+        return List.copyOf(subjectRepository.findWithClassroomByClassroom_Year(year));
+    }
+
+    /**
+     * Drops the cached subject list of a year after a subject was added, renamed or deleted.
+     */
+    @CacheEvict(cacheNames = CacheConfig.SUBJECTS, key = CLASSROOM_YEAR_KEY)
+    public void evictSubjects(String year) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.classcount.service;
+
+import com.example.classcount.dto.ResetJobStatus;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one attendance reset. Counters are updated by the reset thread and read by status requests.
+ */
+public class ResetJob extends BackgroundJob {
+
+    private final int totalStudents;
+
+    private final AtomicInteger processedStudents = new AtomicInteger();
+    private final AtomicLong deletedRecords = new AtomicLong();
+    private final AtomicInteger batches = new AtomicInteger();
+
+    public ResetJob(String year, int totalStudents) {
+        super(year);
+        this.totalStudents = totalStudents;
+    }
+
+    void batchDeleted(int students, int records) {
+        processedStudents.addAndGet(students);
+        deletedRecords.addAndGet(records);
+        batches.incrementAndGet();
+    }
+
+    public ResetJobStatus toStatus() {
+        return new ResetJobStatus(getId(), getYear(), getState().name(), totalStudents, processedStudents.get(),
+                deletedRecords.get(), batches.get(), getErrorMessage());
+    }
+}
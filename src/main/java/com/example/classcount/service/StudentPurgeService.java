@@ -0,0 +1,85 @@
+package com.example.classcount.service;
+
+import com.example.classcount.dto.PurgeResult;
+import com.example.classcount.event.YearDataChangedEvent;
+import com.example.classcount.repository.AttendanceCounterRepository;
+import com.example.classcount.repository.AttendanceRepository;
+import com.example.classcount.repository.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Deletes students together with their attendance and counters as set-based statements, a chunk of
+ * student ids at a time, without loading any entities. Each chunk costs three bulk deletes (counters,
+ * attendance, students), so a purge runs in time proportional to the rows deleted.
+ */
+@Service
+public class StudentPurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudentPurgeService.class);
+
+    private final StudentRepository studentRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceCounterRepository attendanceCounterRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${classcount.purge.chunk-size:1000}")
+    private int chunkSize;
+
+    public StudentPurgeService(StudentRepository studentRepository, AttendanceRepository attendanceRepository,
+                               AttendanceCounterRepository attendanceCounterRepository, ApplicationEventPublisher eventPublisher) {
+        this.studentRepository = studentRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.attendanceCounterRepository = attendanceCounterRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Deletes every student of a year with their attendance and counters, in one transaction.
+     */
+    @Transactional
+    public PurgeResult purgeYear(String year) {
+        int students = 0;
+        int attendance = 0;
+        long afterId = 0L;
+        List<Long> chunk;
+        while (!(chunk = studentRepository.findIdsByYearAfter(year, afterId, Limit.of(chunkSize))).isEmpty()) {
+            attendance += purgeChunk(chunk);
+            students += chunk.size();
+            afterId = chunk.get(chunk.size() - 1);
+        }
+
+        eventPublisher.publishEvent(new YearDataChangedEvent(year));
+        logger.info("Purged {} students and {} attendance records of {}", students, attendance, year);
+        return new PurgeResult(students, attendance);
+    }
+
+    /**
+     * Deletes the given students of a year with their attendance and counters, in one transaction.
+     */
+    @Transactional
+    public PurgeResult purgeStudents(String year, List<Long> studentIds) {
+        int attendance = 0;
+        for (int from = 0; from < studentIds.size(); from += chunkSize) {
+            attendance += purgeChunk(studentIds.subList(from, Math.min(from + chunkSize, studentIds.size())));
+        }
+
+        eventPublisher.publishEvent(new YearDataChangedEvent(year));
+        return new PurgeResult(studentIds.size(), attendance);
+    }
+
+    // Derived counters first, then the attendance rows and finally the students they reference
+    private int purgeChunk(List<Long> studentIds) {
+        attendanceCounterRepository.deleteByStudentIdIn(studentIds);
+        int attendance = attendanceRepository.deleteByStudentIdIn(studentIds);
+        studentRepository.deleteByIdIn(studentIds);
+        return attendance;
+    }
+}
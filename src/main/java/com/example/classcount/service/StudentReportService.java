@@ -0,0 +1,59 @@
+package com.example.classcount.service;
+
+import com.example.classcount.entity.Student;
+import com.example.classcount.entity.Subject;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class StudentReportService {
+
+    private final ReferenceDataService referenceDataService;
+    private final AttendanceCounterService attendanceCounterService;
+    private final AttendanceFormatter attendanceFormatter;
+
+    public StudentReportService(ReferenceDataService referenceDataService, AttendanceCounterService attendanceCounterService,
+                                AttendanceFormatter attendanceFormatter) {
+        this.referenceDataService = referenceDataService;
+        this.attendanceFormatter = attendanceFormatter;
+        this.attendanceCounterService = attendanceCounterService;
+    }
+
+    /**
+     * Builds the individual attendance report of one student over the given period from its maintained
+     * counters, one small row per subject, however many subjects the year has.
+     */
+    public Map<String, Object> getIndividualReport(Student student, String year, AttendancePeriod period) {
+        List<Subject> subjects = referenceDataService.getSubjects(year);
+
+        // A single-row grid: the student's counters laid out by subject
+        AttendanceMatrix matrix = AttendanceMatrix.of(List.of(student), subjects,
+                attendanceCounterService.countsForStudents(year, List.of(student.getId()), period));
+
+        Map<String, String> subjectAttendanceSummary = new LinkedHashMap<>();
+        int overallPresent = 0;
+        int overallTotal = 0;
+
+        for (int column = 0; column < subjects.size(); column++) {
+            int presentCount = matrix.present(0, column);
+            int total = matrix.total(0, column);
+
+            subjectAttendanceSummary.put(subjects.get(column).getName(), presentCount + "/" + total);
+            overallPresent += presentCount;
+            overallTotal += total;
+        }
+
+        String overallPercentage = attendanceFormatter.percentage(overallPresent, overallTotal) + "%";
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("subjects", subjects);
+        report.put("subjectAttendanceSummary", subjectAttendanceSummary);
+        report.put("overallPercentage", overallPercentage);
+
+        return report;
+    }
+}
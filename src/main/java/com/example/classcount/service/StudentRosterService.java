@@ -0,0 +1,31 @@
+package com.example.classcount.service;
+
+import com.example.classcount.dto.StudentListRow;
+import com.example.classcount.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+@Service
+public class StudentRosterService {
+
+    private final StudentRepository studentRepository;
+
+    @Value("${classcount.roster.chunk-size:500}")
+    private int chunkSize;
+
+    public StudentRosterService(StudentRepository studentRepository) {
+        this.studentRepository = studentRepository;
+    }
+
+    /**
+     * The students of a year in id order, read in chunks while the page renders, so a roster
+     * of any size is never held in memory as a whole.
+     */
+    public Iterable<StudentListRow> getRoster(String year) {
+        return new KeysetIterable<>(
+                afterId -> studentRepository.findRowsByYearAfter(year, afterId, Limit.of(chunkSize)),
+                StudentListRow::id,
+                chunkSize);
+    }
+}
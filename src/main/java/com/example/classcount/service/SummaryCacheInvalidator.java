@@ -0,0 +1,41 @@
+package com.example.classcount.service;
+
+import com.example.classcount.config.CacheConfig;
+import com.example.classcount.entity.Classroom;
+import com.example.classcount.event.YearDataChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+public class SummaryCacheInvalidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SummaryCacheInvalidator.class);
+
+    private final CacheManager cacheManager;
+    private final ReferenceDataService referenceDataService;
+
+    public SummaryCacheInvalidator(CacheManager cacheManager, ReferenceDataService referenceDataService) {
+        this.cacheManager = cacheManager;
+        this.referenceDataService = referenceDataService;
+    }
+
+    /**
+     * Drops every cached summary page of the year that changed. Runs once the change has committed, so
+     * the next view reloads the new data; events published outside a transaction are handled immediately.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @SuppressWarnings("unchecked")
+    public void onYearDataChanged(YearDataChangedEvent event) {
+        // Page keys are "year|period|afterStudentId|size" with the classroom's spelling of the year (see
+        // AttendanceService.getSummaryPage); purges and resets publish the year as it was typed in the URL
+        String year = referenceDataService.findClassroom(event.year()).map(Classroom::getYear).orElse(event.year());
+        String prefix = year + "|";
+        Cache<Object, Object> pages = (Cache<Object, Object>) cacheManager.getCache(CacheConfig.ATTENDANCE_SUMMARIES).getNativeCache();
+        pages.asMap().keySet().removeIf(key -> key.toString().startsWith(prefix));
+        logger.debug("Evicted cached attendance summary pages for {}", event.year());
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.classcount.service;
+
+import java.time.LocalDate;
+
+/**
+ * One teaching term: the {@code index}-th term starting in calendar {@code year}, running from
+ * {@code start} to {@code end} inclusive. Terms are laid out by {@link TermCalendar}.
+ */
+public record Term(int year, int index, LocalDate start, LocalDate end) {
+
+    /**
+     * The compact key stored with the per-term attendance counters, e.g. 202602 for the second term
+     * of 2026. Keys sort in the same order as the terms themselves.
+     */
+    public int key() {
+        return year * 100 + index;
+    }
+
+    public String label() {
+        return year + " Term " + index;
+    }
+}
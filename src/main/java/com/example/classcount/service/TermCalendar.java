@@ -0,0 +1,108 @@
+package com.example.classcount.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Splits the calendar into terms that start on the first day of the configured months
+ * ({@code classcount.terms.start-months}, January and July by default). A term runs until the day before
+ * the next one starts, so dates before the first start month belong to the last term of the previous year.
+ */
+@Component
+public class TermCalendar {
+
+    private final int[] startMonths;
+
+    public TermCalendar(@Value("${classcount.terms.start-months:1,7}") int[] startMonths) {
+        int[] sorted = Arrays.stream(startMonths).distinct().sorted().toArray();
+        if (sorted.length == 0 || sorted[0] < 1 || sorted[sorted.length - 1] > 12) {
+            throw new IllegalArgumentException("Term start months must be between 1 and 12: " + Arrays.toString(startMonths));
+        }
+        this.startMonths = sorted;
+    }
+
+    public Term termOf(LocalDate date) {
+        int month = date.getMonthValue();
+        for (int i = startMonths.length - 1; i >= 0; i--) {
+            if (month >= startMonths[i]) {
+                return term(date.getYear(), i + 1);
+            }
+        }
+        return term(date.getYear() - 1, startMonths.length);
+    }
+
+    public Term currentTerm() {
+        return termOf(LocalDate.now());
+    }
+
+    public Term termByKey(int key) {
+        int index = key % 100;
+        if (index < 1 || index > startMonths.length) {
+            throw new IllegalArgumentException("Unknown term: " + key);
+        }
+        return term(key / 100, index);
+    }
+
+    // The given number of terms up to and including the current one, newest first
+    public List<Term> recentTerms(int count) {
+        List<Term> terms = new ArrayList<>(count);
+        Term term = currentTerm();
+        for (int i = 0; i < count; i++) {
+            terms.add(term);
+            term = termOf(term.start().minusDays(1));
+        }
+        return terms;
+    }
+
+    /**
+     * Resolves the period of a report from its request parameters: a term key, or a from/to date range,
+     * or all time when neither is given.
+     */
+    public AttendancePeriod resolvePeriod(Integer termKey, LocalDate from, LocalDate to) {
+        if (termKey != null) {
+            Term term = termByKey(termKey);
+            return new AttendancePeriod(term.label(), term.start(), term.end());
+        }
+        if (from == null && to == null) {
+            return AttendancePeriod.allTime();
+        }
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("A date range needs both a start and an end date.");
+        }
+        return AttendancePeriod.between(from, to);
+    }
+
+    /**
+     * True when the period starts on the first day of a term and ends on the last day of a term,
+     * so it can be answered from the per-term counters.
+     */
+    public boolean coversWholeTerms(AttendancePeriod period) {
+        return !period.isAllTime()
+                && termOf(period.from()).start().equals(period.from())
+                && termOf(period.to()).end().equals(period.to());
+    }
+
+    // SQL expression computing the term key of a date column, matching termOf
+    String termKeySql(String dateColumn) {
+        StringBuilder sql = new StringBuilder("CASE");
+        for (int i = startMonths.length - 1; i >= 0; i--) {
+            sql.append(" WHEN MONTH(").append(dateColumn).append(") >= ").append(startMonths[i])
+                    .append(" THEN YEAR(").append(dateColumn).append(") * 100 + ").append(i + 1);
+        }
+        return sql.append(" ELSE (YEAR(").append(dateColumn).append(") - 1) * 100 + ").append(startMonths.length)
+                .append(" END").toString();
+    }
+
+    private Term term(int year, int index) {
+        LocalDate start = LocalDate.of(year, startMonths[index - 1], 1);
+        LocalDate nextStart = index < startMonths.length
+                ? LocalDate.of(year, startMonths[index], 1)
+                : LocalDate.of(year + 1, startMonths[0], 1);
+        return new Term(year, index, start, nextStart.minusDays(1));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.classcount.service;
+
+import com.example.classcount.entity.Student;
+import com.example.classcount.entity.Subject;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Writes reports as an Excel workbook, one sheet per year, through SXSSF so only a window of rows is
+ * held in memory.
+ */
+@Component
+public class XlsxReportWriter implements AttendanceReportWriter {
+
+    // Rows kept in memory before SXSSF flushes them to its (compressed) temp file
+    private static final int ROW_ACCESS_WINDOW = 100;
+    // Excel's hard limit for a column width, in characters
+    private static final int MAX_COLUMN_CHARS = 255;
+    // Excel's limit for a sheet name
+    private static final int MAX_SHEET_NAME_CHARS = 31;
+
+    private final AttendanceFormatter attendanceFormatter;
+
+    public XlsxReportWriter(AttendanceFormatter attendanceFormatter) {
+        this.attendanceFormatter = attendanceFormatter;
+    }
+
+    @Override
+    public ExportFormat format() {
+        return ExportFormat.XLSX;
+    }
+
+    @Override
+    public String contentType() {
+        return "application/vnd.ms-excel";
+    }
+
+    @Override
+    public String fileExtension() {
+        return ".xlsx";
+    }
+
+    @Override
+    public void write(List<YearReport> reports, OutputStream output) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        workbook.setCompressTempFiles(true);
+
+        CellStyle headerStyle = workbook.createCellStyle();
+        Font headerFont = workbook.createFont();
+        headerFont.setBold(true);
+        headerStyle.setFont(headerFont);
+        headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+
+        try {
+            Set<String> sheetNames = new HashSet<>();
+            for (YearReport report : reports) {
+                writeSheet(workbook.createSheet(uniqueSheetName(report.title(), sheetNames)), report, headerStyle);
+            }
+            workbook.write(output);
+        } finally {
+            // Drop the temp files backing the flushed rows
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    // Sheet names are cut to 31 characters and compared ignoring case, so titles that only differ past the cut
+    // or in case get a numbered suffix instead of making createSheet throw
+    static String uniqueSheetName(String title, Set<String> usedNames) {
+        String base = WorkbookUtil.createSafeSheetName(title);
+        String name = base;
+        for (int n = 2; !usedNames.add(name.toLowerCase(Locale.ROOT)); n++) {
+            String suffix = " (" + n + ")";
+            name = base.substring(0, Math.min(base.length(), MAX_SHEET_NAME_CHARS - suffix.length())) + suffix;
+        }
+        return name;
+    }
+
+    private void writeSheet(Sheet sheet, YearReport report, CellStyle headerStyle) {
+        List<Student> students = report.students();
+        List<Subject> subjects = report.subjects();
+        // Present/total per student and subject, in the same order as the rows and columns
+        AttendanceMatrix matrix = report.matrix();
+
+        // Widest value seen per column, tracked while writing instead of autoSizeColumn's font measurement
+        int[] columnChars = new int[subjects.size() + 2];
+
+        // Create header row
+        Row headerRow = sheet.createRow(0);
+
+        writeCell(headerRow, 0, "Student Name", headerStyle, columnChars);
+
+        int cellIndex = 1;
+        for (Subject subject : subjects) {
+            writeCell(headerRow, cellIndex++, subject.getName(), headerStyle, columnChars);
+        }
+        writeCell(headerRow, cellIndex, "Overall %", headerStyle, columnChars);
+
+        // Fill data rows
+        for (int row = 0; row < students.size(); row++) {
+            Row dataRow = sheet.createRow(row + 1);
+            writeCell(dataRow, 0, students.get(row).getName(), null, columnChars);
+
+            cellIndex = 1;
+            for (int column = 0; column < subjects.size(); column++) {
+                writeCell(dataRow, cellIndex++, matrix.present(row, column) + "/" + matrix.total(row, column), null, columnChars);
+            }
+
+            String overallPercentage = attendanceFormatter.percentage(matrix.rowPresent(row), matrix.rowTotal(row)) + "%";
+            writeCell(dataRow, cellIndex, overallPercentage, null, columnChars);
+        }
+
+        // Size columns from the tracked character counts
+        for (int i = 0; i < columnChars.length; i++) {
+            sheet.setColumnWidth(i, Math.min(columnChars[i] + 2, MAX_COLUMN_CHARS) * 256);
+        }
+    }
+
+    private void writeCell(Row row, int column, String value, CellStyle style, int[] columnChars) {
+        Cell cell = row.createCell(column);
+        cell.setCellValue(value);
+        if (style != null) {
+            cell.setCellStyle(style);
+        }
+        columnChars[column] = Math.max(columnChars[column], value.length());
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.classcount.service;
+
+import com.example.classcount.entity.Student;
+import com.example.classcount.entity.Subject;
+
+import java.util.List;
+
+/**
+ * One year's attendance report, aggregated and ready for any export format: a row per student and a
+ * column per subject, with the counts laid out in the same order. {@code title} names the year's
+ * section (the sheet name in a workbook).
+ */
+public record YearReport(String year, String title, List<Student> students, List<Subject> subjects, AttendanceMatrix matrix) {
+}
@@ -0,0 +1,213 @@
+package com.example.classcount;
+
+import com.example.classcount.entity.Classroom;
+import com.example.classcount.entity.Student;
+import com.example.classcount.entity.Subject;
+import com.example.classcount.entity.User;
+import com.example.classcount.repository.ClassroomRepository;
+import com.example.classcount.repository.StudentRepository;
+import com.example.classcount.repository.SubjectRepository;
+import com.example.classcount.repository.UserRepository;
+import com.example.classcount.service.AttendanceService;
+import com.example.classcount.service.StudentPurgeService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives /attendance/save and /attendance/view/{year} with concurrent clients against the app started
+ * on platform threads and in the virtual-thread profile, and reports the throughput and p50/p99 latency
+ * of each. Runs only when started with -Dclasscount.load-test=true, against the dedicated database of the
+ * integration profile; clients and requests per client can be changed with -Dclasscount.load-test.clients
+ * and .requests.
+ */
+@Tag("load")
+@EnabledIfSystemProperty(named = "classcount.load-test", matches = "true")
+class AttendanceLoadTests {
+
+	private static final String YEAR = "Load Test Year";
+	private static final String USERNAME = "load-test";
+	private static final String PASSWORD = "load-test-password";
+	private static final int SUBJECTS = 20;
+	private static final int STUDENTS = 60;
+
+	private final int clients = Integer.getInteger("classcount.load-test.clients", 200);
+	private final int requestsPerClient = Integer.getInteger("classcount.load-test.requests", 20);
+
+	@ParameterizedTest(name = "virtual threads: {0}")
+	@ValueSource(booleans = {false, true})
+	void saveAndViewUnderLoad(boolean virtualThreads, TestReporter reporter) throws Exception {
+		SpringApplicationBuilder builder = new SpringApplicationBuilder(ClasscountApplication.class)
+				.profiles(IntegrationDatabase.PROFILE);
+		if (virtualThreads) {
+			builder.profiles("virtual");
+		}
+
+		try (ConfigurableApplicationContext context = builder.run("--server.port=0")) {
+			String mode = virtualThreads ? "virtual" : "platform";
+			String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+			IntegrationDatabase.assertDedicated(context.getEnvironment());
+			Classroom classroom = createData(context);
+			try {
+				HttpClient client = login(baseUrl);
+				List<Subject> subjects = context.getBean(SubjectRepository.class).findWithClassroomByClassroom_Year(YEAR);
+				List<Student> students = context.getBean(StudentRepository.class).findByClassroom_Year(YEAR);
+				String studentIds = students.stream()
+						.map(student -> "studentIds=" + student.getId())
+						.reduce((a, b) -> a + "&" + b).orElseThrow();
+				String presentIds = studentIds.replace("studentIds=", "presentStudentIds=");
+
+				// Requests spread over the subjects, as teachers of different classes mark at once;
+				// alternating all-present and all-absent makes every save after the first change each mark
+				report(reporter, mode, "POST /attendance/save", run(request -> {
+					Subject subject = subjects.get(request % subjects.size());
+					String body = "subjectId=" + subject.getId() + "&year=" + encode(YEAR) + "&" + studentIds
+							+ ((request / subjects.size()) % 2 == 0 ? "&" + presentIds : "");
+					return HttpRequest.newBuilder(URI.create(baseUrl + "/attendance/save"))
+							.header("Content-Type", "application/x-www-form-urlencoded")
+							.POST(HttpRequest.BodyPublishers.ofString(body)).build();
+				}, client, 302));
+
+				report(reporter, mode, "GET /attendance/view/{year}", run(request ->
+						HttpRequest.newBuilder(URI.create(baseUrl + "/attendance/view/" + encode(YEAR).replace("+", "%20")))
+								.GET().build(), client, 200));
+			} finally {
+				removeData(context, classroom);
+			}
+		}
+	}
+
+	// Latency of every request and the wall-clock time of the whole run, in nanoseconds
+	private record LoadRun(long[] latencies, long elapsed) {
+	}
+
+	// Sends clients x requestsPerClient requests from concurrent clients
+	private LoadRun run(IntFunction<HttpRequest> requests, HttpClient client, int expectedStatus) throws Exception {
+		long[] latencies = new long[clients * requestsPerClient];
+		AtomicInteger unexpected = new AtomicInteger();
+		long start = System.nanoTime();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<?>> futures = new ArrayList<>(clients);
+			for (int c = 0; c < clients; c++) {
+				int clientIndex = c;
+				futures.add(executor.submit(() -> {
+					for (int r = 0; r < requestsPerClient; r++) {
+						int request = clientIndex * requestsPerClient + r;
+						long sent = System.nanoTime();
+						HttpResponse<Void> response = client.send(requests.apply(request), HttpResponse.BodyHandlers.discarding());
+						latencies[request] = System.nanoTime() - sent;
+						if (response.statusCode() != expectedStatus) {
+							unexpected.incrementAndGet();
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		assertEquals(0, unexpected.get(), "Requests with an unexpected status");
+		return new LoadRun(latencies, elapsed);
+	}
+
+	private void report(TestReporter reporter, String mode, String endpoint, LoadRun run) {
+		long[] latencies = run.latencies().clone();
+		Arrays.sort(latencies);
+		reporter.publishEntry(mode + " " + endpoint, String.format("%d requests %.1f req/s  p50 %.1f ms  p99 %.1f ms",
+				latencies.length, latencies.length / (run.elapsed() / 1e9),
+				percentile(latencies, 50) / 1e6, percentile(latencies, 99) / 1e6));
+	}
+
+	private static long percentile(long[] sorted, int percentile) {
+		int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+		return sorted[Math.max(0, index)];
+	}
+
+	private HttpClient login(String baseUrl) throws Exception {
+		HttpClient client = HttpClient.newBuilder()
+				.cookieHandler(new CookieManager())
+				.followRedirects(HttpClient.Redirect.NEVER)
+				.build();
+		HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString("username=" + USERNAME + "&password=" + PASSWORD))
+				.build(), HttpResponse.BodyHandlers.discarding());
+		assertEquals(baseUrl + "/welcome", response.headers().firstValue("Location").orElse(""), "Login failed");
+		return client;
+	}
+
+	private Classroom createData(ConfigurableApplicationContext context) {
+		UserRepository userRepository = context.getBean(UserRepository.class);
+		if (userRepository.findByUsername(USERNAME).isEmpty()) {
+			User user = new User();
+			user.setUsername(USERNAME);
+			user.setPassword(context.getBean(PasswordEncoder.class).encode(PASSWORD));
+			user.setRole("ADMIN");
+			userRepository.save(user);
+		}
+
+		ClassroomRepository classroomRepository = context.getBean(ClassroomRepository.class);
+		Classroom classroom = classroomRepository.findByYear(YEAR).orElseGet(() -> {
+			Classroom created = new Classroom();
+			created.setYear(YEAR);
+			return classroomRepository.save(created);
+		});
+
+		List<Subject> subjects = new ArrayList<>();
+		for (int i = 1; i <= SUBJECTS; i++) {
+			Subject subject = new Subject();
+			subject.setName("Load Subject " + i);
+			subject.setClassroom(classroom);
+			subjects.add(subject);
+		}
+		context.getBean(SubjectRepository.class).saveAll(subjects);
+
+		List<Student> students = new ArrayList<>();
+		for (int i = 1; i <= STUDENTS; i++) {
+			Student student = new Student();
+			student.setName("Load Student " + i);
+			student.setRollNumber("LOAD-" + i);
+			student.setClassroom(classroom);
+			students.add(student);
+		}
+		context.getBean(StudentRepository.class).saveAll(students);
+		return classroom;
+	}
+
+	private void removeData(ConfigurableApplicationContext context, Classroom classroom) {
+		context.getBean(StudentPurgeService.class).purgeYear(YEAR);
+		AttendanceService attendanceService = context.getBean(AttendanceService.class);
+		context.getBean(SubjectRepository.class).findWithClassroomByClassroom_Year(YEAR).forEach(attendanceService::deleteSubject);
+		context.getBean(ClassroomRepository.class).delete(classroom);
+		context.getBean(UserRepository.class).findByUsername(USERNAME).ifPresent(context.getBean(UserRepository.class)::delete);
+	}
+
+	private static String encode(String value) {
+		return URLEncoder.encode(value, StandardCharsets.UTF_8);
+	}
+}
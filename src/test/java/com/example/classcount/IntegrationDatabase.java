@@ -0,0 +1,38 @@
+package com.example.classcount;
+
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * The dedicated database of the "integration" profile, for tests that insert and delete their own data.
+ */
+public final class IntegrationDatabase {
+
+	public static final String PROFILE = "integration";
+
+	private IntegrationDatabase() {
+	}
+
+	/**
+	 * Fails unless the context is connected to a database other than the one in application.properties,
+	 * so a test never writes to the application's own data.
+	 */
+	public static void assertDedicated(Environment environment) {
+		String url = environment.getProperty("spring.datasource.url");
+		String applicationUrl;
+		try {
+			applicationUrl = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"))
+					.getProperty("spring.datasource.url");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		if (url == null || url.equals(applicationUrl)) {
+			throw new IllegalStateException("Refusing to write test data to the application database " + url
+					+ "; run with the \"" + PROFILE + "\" profile or point spring.datasource.url at a test schema.");
+		}
+	}
+}
@@ -0,0 +1,266 @@
+package com.example.classcount.repository;
+
+import com.example.classcount.IntegrationDatabase;
+import com.example.classcount.entity.Student;
+import com.example.classcount.entity.Subject;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs each repository query, captures the SQL Hibernate sends for it, and runs EXPLAIN on that SQL with
+ * the same arguments; fails if any table is read with a full scan. The years seeded below hold enough
+ * rows that MySQL's choice of index does not depend on whatever else is in the test database. Modifying
+ * queries run in a transaction that is rolled back. Uses the dedicated database of the integration profile.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.example.classcount.repository.AttendanceQueryPlanTests$CapturingInspector")
+@ActiveProfiles(IntegrationDatabase.PROFILE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AttendanceQueryPlanTests {
+
+	private static final String YEAR_PREFIX = "Query Plan Year ";
+	private static final int YEARS = 20;
+	private static final int STUDENTS_PER_YEAR = 100;
+	private static final int SUBJECTS_PER_YEAR = 5;
+	private static final int DAYS = 10;
+	private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 8);
+	private static final int FIRST_TERM = 202401;
+	private static final int LAST_TERM = 202402;
+
+	// Records every statement Hibernate prepares while a query runs
+	public static class CapturingInspector implements StatementInspector {
+
+		static final List<String> statements = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			statements.add(sql);
+			return sql;
+		}
+	}
+
+	@Autowired
+	private Environment environment;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private AttendanceRepository attendanceRepository;
+
+	@Autowired
+	private AttendanceCounterRepository attendanceCounterRepository;
+
+	@Autowired
+	private StudentRepository studentRepository;
+
+	@Autowired
+	private SubjectRepository subjectRepository;
+
+	private String year;
+	private Student student;
+	private Subject subject;
+	private List<Long> studentIds;
+
+	@BeforeAll
+	void seedData() {
+		IntegrationDatabase.assertDedicated(environment);
+		removeData();
+
+		List<Object[]> classrooms = new ArrayList<>();
+		for (int y = 1; y <= YEARS; y++) {
+			classrooms.add(new Object[]{yearName(y)});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO classrooms (year) VALUES (?)", classrooms);
+
+		for (int y = 1; y <= YEARS; y++) {
+			Long classroomId = jdbcTemplate.queryForObject("SELECT id FROM classrooms WHERE year = ?", Long.class, yearName(y));
+			List<Object[]> students = new ArrayList<>();
+			for (int s = 1; s <= STUDENTS_PER_YEAR; s++) {
+				students.add(new Object[]{"Query Plan Student " + s, "QUERY-PLAN-" + y + "-" + s, classroomId});
+			}
+			jdbcTemplate.batchUpdate("INSERT INTO students (name, roll_number, classroom_id) VALUES (?, ?, ?)", students);
+			List<Object[]> subjects = new ArrayList<>();
+			for (int s = 1; s <= SUBJECTS_PER_YEAR; s++) {
+				subjects.add(new Object[]{"Query Plan Subject " + s, classroomId});
+			}
+			jdbcTemplate.batchUpdate("INSERT INTO subjects (name, classroom_id) VALUES (?, ?)", subjects);
+
+			List<Long> yearStudents = jdbcTemplate.queryForList(
+					"SELECT id FROM students WHERE classroom_id = ? ORDER BY id", Long.class, classroomId);
+			List<Long> yearSubjects = jdbcTemplate.queryForList(
+					"SELECT id FROM subjects WHERE classroom_id = ? ORDER BY id", Long.class, classroomId);
+			List<Object[]> attendance = new ArrayList<>();
+			List<Object[]> counters = new ArrayList<>();
+			for (Long subjectId : yearSubjects) {
+				for (Long studentId : yearStudents) {
+					for (int d = 0; d < DAYS; d++) {
+						attendance.add(new Object[]{studentId, subjectId, Date.valueOf(FIRST_DAY.plusDays(d)), (studentId + d) % 3 != 0});
+					}
+					for (int term = FIRST_TERM; term <= LAST_TERM; term++) {
+						counters.add(new Object[]{studentId, subjectId, term, DAYS / 2, DAYS});
+					}
+				}
+			}
+			jdbcTemplate.batchUpdate("INSERT INTO attendance (student_id, subject_id, date, is_present) VALUES (?, ?, ?, ?)", attendance);
+			jdbcTemplate.batchUpdate("INSERT INTO attendance_term_counters (student_id, subject_id, term, present_count, total_count) "
+					+ "VALUES (?, ?, ?, ?, ?)", counters);
+		}
+
+		// Refresh the index statistics the optimizer bases its plans on
+		Stream.of("classrooms", "students", "subjects", "attendance", "attendance_term_counters")
+				.forEach(table -> jdbcTemplate.execute("ANALYZE TABLE " + table));
+
+		year = yearName(YEARS / 2);
+		List<Student> students = studentRepository.findByClassroom_Year(year);
+		student = students.get(0);
+		studentIds = students.stream().limit(3).map(Student::getId).toList();
+		subject = subjectRepository.findByClassroom_Year(year).get(0);
+	}
+
+	@AfterAll
+	void removeData() {
+		String seededStudents = "SELECT s.id FROM students s JOIN classrooms c ON c.id = s.classroom_id WHERE c.year LIKE ?";
+		String seededClassrooms = "SELECT id FROM classrooms WHERE year LIKE ?";
+		String pattern = YEAR_PREFIX + "%";
+		jdbcTemplate.update("DELETE FROM attendance_term_counters WHERE student_id IN (" + seededStudents + ")", pattern);
+		jdbcTemplate.update("DELETE FROM attendance WHERE student_id IN (" + seededStudents + ")", pattern);
+		jdbcTemplate.update("DELETE FROM students WHERE classroom_id IN (" + seededClassrooms + ")", pattern);
+		jdbcTemplate.update("DELETE FROM subjects WHERE classroom_id IN (" + seededClassrooms + ")", pattern);
+		jdbcTemplate.update("DELETE FROM classrooms WHERE year LIKE ?", pattern);
+	}
+
+	@Test
+	void repositoryQueriesUseIndexes() {
+		LocalDate date = FIRST_DAY.plusDays(1);
+		LocalDate to = FIRST_DAY.plusDays(5);
+		Long afterId = student.getId();
+		Object[] ids = studentIds.toArray();
+
+		List<String> fullScans = new ArrayList<>();
+		explain(fullScans, "findBySubjectAndDate",
+				capture(() -> attendanceRepository.findBySubjectAndDate(subject, date)), subject.getId(), date);
+		explain(fullScans, "findRecordsBySubjectAndDate",
+				capture(() -> attendanceRepository.findRecordsBySubjectAndDate(subject, date)), subject.getId(), date);
+		explain(fullScans, "existsBySubjectAndDate",
+				capture(() -> attendanceRepository.existsBySubjectAndDate(subject, date)), subject.getId(), date, 1);
+		explain(fullScans, "findByStudentAndSubject",
+				capture(() -> attendanceRepository.findByStudentAndSubject(student, subject)), student.getId(), subject.getId());
+		explain(fullScans, "findBySubject",
+				capture(() -> attendanceRepository.findBySubject(subject)), subject.getId());
+		explain(fullScans, "findCountsByYearAndDateBetween",
+				capture(() -> attendanceRepository.findCountsByYearAndDateBetween(year, date, to)), year, date, to);
+		explain(fullScans, "findCountsByYearAndDateBetweenAndStudentIdIn",
+				capture(() -> attendanceRepository.findCountsByYearAndDateBetweenAndStudentIdIn(year, date, to, studentIds)),
+				args(new Object[]{year, date, to}, ids));
+		explain(fullScans, "deleteByStudentIdIn",
+				captureRolledBack(() -> attendanceRepository.deleteByStudentIdIn(studentIds)), ids);
+		explain(fullScans, "deleteBySubjectId",
+				captureRolledBack(() -> attendanceRepository.deleteBySubjectId(subject.getId())), subject.getId());
+		explain(fullScans, "deleteBySubjectAndDateAndStudentIdIn",
+				captureRolledBack(() -> attendanceRepository.deleteBySubjectAndDateAndStudentIdIn(subject, date, studentIds)),
+				args(new Object[]{subject.getId(), date}, ids));
+
+		explain(fullScans, "findCountsByYear (counters)",
+				capture(() -> attendanceCounterRepository.findCountsByYear(year)), year);
+		explain(fullScans, "findCountsByStudentIdIn (counters)",
+				capture(() -> attendanceCounterRepository.findCountsByStudentIdIn(studentIds)), ids);
+		explain(fullScans, "findCountsByYearAndTermBetween (counters)",
+				capture(() -> attendanceCounterRepository.findCountsByYearAndTermBetween(year, FIRST_TERM, LAST_TERM)),
+				year, FIRST_TERM, LAST_TERM);
+		explain(fullScans, "findCountsByStudentIdInAndTermBetween (counters)",
+				capture(() -> attendanceCounterRepository.findCountsByStudentIdInAndTermBetween(studentIds, FIRST_TERM, LAST_TERM)),
+				args(ids, new Object[]{FIRST_TERM, LAST_TERM}));
+		explain(fullScans, "deleteByStudentIdIn (counters)",
+				captureRolledBack(() -> attendanceCounterRepository.deleteByStudentIdIn(studentIds)), ids);
+		explain(fullScans, "deleteBySubjectId (counters)",
+				captureRolledBack(() -> attendanceCounterRepository.deleteBySubjectId(subject.getId())), subject.getId());
+
+		explain(fullScans, "findByClassroom_Year (students)",
+				capture(() -> studentRepository.findByClassroom_Year(year)), year);
+		explain(fullScans, "findByRollNumberAndClassroom_Year",
+				capture(() -> studentRepository.findByRollNumberAndClassroom_Year(student.getRollNumber(), year)),
+				student.getRollNumber(), year);
+		// Queries with a Limit bind an offset of 0 and the limit
+		explain(fullScans, "findByClassroom_YearAndIdGreaterThanOrderByIdAsc",
+				capture(() -> studentRepository.findByClassroom_YearAndIdGreaterThanOrderByIdAsc(year, afterId, Limit.of(101))),
+				year, afterId, 0, 101);
+		explain(fullScans, "findRowsByYearAfter",
+				capture(() -> studentRepository.findRowsByYearAfter(year, afterId, Limit.of(500))), year, afterId, 0, 500);
+		explain(fullScans, "countByClassroom_Year",
+				capture(() -> studentRepository.countByClassroom_Year(year)), year);
+		explain(fullScans, "findIdsByYearAfter",
+				capture(() -> studentRepository.findIdsByYearAfter(year, afterId, Limit.of(1000))), year, afterId, 0, 1000);
+		// The students' attendance and counters go first, as in StudentPurgeService, to satisfy the foreign keys
+		explain(fullScans, "deleteByIdIn (students)", captureRolledBack(() -> {
+			attendanceCounterRepository.deleteByStudentIdIn(studentIds);
+			attendanceRepository.deleteByStudentIdIn(studentIds);
+			CapturingInspector.statements.clear();
+			studentRepository.deleteByIdIn(studentIds);
+		}), ids);
+
+		explain(fullScans, "findByClassroom_Year (subjects)",
+				capture(() -> subjectRepository.findByClassroom_Year(year)), year);
+		explain(fullScans, "findWithClassroomByClassroom_Year (subjects)",
+				capture(() -> subjectRepository.findWithClassroomByClassroom_Year(year)), year);
+
+		assertTrue(fullScans.isEmpty(), "Full table scans found: " + fullScans);
+	}
+
+	// The first statement Hibernate prepared while the query ran
+	private String capture(Runnable query) {
+		CapturingInspector.statements.clear();
+		query.run();
+		assertFalse(CapturingInspector.statements.isEmpty(), "No statement was captured");
+		return CapturingInspector.statements.get(0);
+	}
+
+	private String captureRolledBack(Runnable query) {
+		return capture(() -> transactionTemplate.executeWithoutResult(status -> {
+			query.run();
+			status.setRollbackOnly();
+		}));
+	}
+
+	private void explain(List<String> fullScans, String name, String sql, Object... args) {
+		assertEquals(args.length, sql.chars().filter(c -> c == '?').count(), name + " parameters in: " + sql);
+		for (Map<String, Object> step : jdbcTemplate.queryForList("EXPLAIN " + sql, args)) {
+			if ("ALL".equals(step.get("type"))) {
+				fullScans.add(name + " scans table " + step.get("table"));
+			}
+		}
+	}
+
+	private static Object[] args(Object[] first, Object[] second) {
+		return Stream.concat(Stream.of(first), Stream.of(second)).toArray();
+	}
+
+	private static String yearName(int index) {
+		return YEAR_PREFIX + String.format("%02d", index);
+	}
+}
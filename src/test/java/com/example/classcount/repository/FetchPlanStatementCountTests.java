@@ -0,0 +1,165 @@
+package com.example.classcount.repository;
+
+import com.example.classcount.IntegrationDatabase;
+import com.example.classcount.entity.Classroom;
+import com.example.classcount.entity.Student;
+import com.example.classcount.entity.Subject;
+import com.example.classcount.service.AttendanceService;
+import com.example.classcount.service.StudentPurgeService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.env.Environment;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Requests the edit, delete and report pages through their real handlers and templates and counts the SQL
+ * statements each request prepares, so that a lazy association loaded per row (an N+1 select) or a
+ * classroom loaded after its student or subject fails the build. The year holds several students and
+ * subjects so that per-row loading would show in the count. Caches are cleared before every request so
+ * each count includes the reference data. Uses the dedicated database of the integration profile.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+// Printing the result would call toString on the model's entities and load their lazy collections
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@ActiveProfiles(IntegrationDatabase.PROFILE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@WithMockUser(roles = "ADMIN")
+class FetchPlanStatementCountTests {
+
+	private static final String YEAR = "Fetch Plan Test Year";
+	private static final int STUDENTS = 5;
+	private static final int SUBJECTS = 3;
+
+	@Autowired
+	private Environment environment;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private ClassroomRepository classroomRepository;
+
+	@Autowired
+	private StudentRepository studentRepository;
+
+	@Autowired
+	private SubjectRepository subjectRepository;
+
+	@Autowired
+	private AttendanceService attendanceService;
+
+	@Autowired
+	private StudentPurgeService studentPurgeService;
+
+	private Classroom classroom;
+	private Student student;
+	private Subject subject;
+
+	@BeforeAll
+	void createData() {
+		IntegrationDatabase.assertDedicated(environment);
+		removeData();
+
+		classroom = new Classroom();
+		classroom.setYear(YEAR);
+		classroom = classroomRepository.save(classroom);
+
+		List<Student> students = new ArrayList<>();
+		for (int i = 1; i <= STUDENTS; i++) {
+			Student s = new Student();
+			s.setName("Fetch Plan Student " + i);
+			s.setRollNumber("FETCH-PLAN-" + i);
+			s.setClassroom(classroom);
+			students.add(s);
+		}
+		student = studentRepository.saveAll(students).get(0);
+
+		List<Subject> subjects = new ArrayList<>();
+		for (int i = 1; i <= SUBJECTS; i++) {
+			subjects.add(newSubject("Fetch Plan Subject " + i));
+		}
+		subject = subjectRepository.saveAll(subjects).get(0);
+	}
+
+	@AfterAll
+	void removeData() {
+		studentPurgeService.purgeYear(YEAR);
+		subjectRepository.findWithClassroomByClassroom_Year(YEAR).forEach(attendanceService::deleteSubject);
+		classroomRepository.findByYear(YEAR).ifPresent(classroomRepository::delete);
+	}
+
+	@BeforeEach
+	void clearCaches() {
+		cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+	}
+
+	@Test
+	void studentEditLoadsStudentWithClassroom() throws Exception {
+		// The student with its classroom
+		assertStatements(1, "/students/edit/" + student.getId(), status().isOk());
+	}
+
+	@Test
+	void subjectEditLoadsSubjectWithClassroom() throws Exception {
+		// The subject with its classroom
+		assertStatements(1, "/subjects/edit/" + subject.getId(), status().isOk());
+	}
+
+	@Test
+	void subjectDeleteLoadsSubjectWithClassroomOnce() throws Exception {
+		Subject deleted = subjectRepository.save(newSubject("Fetch Plan Subject To Delete"));
+
+		// The subject with its classroom; in the delete transaction its counters and attendance deleted in bulk,
+		// the subject reloaded, its (now empty) attendance collection loaded for the cascade and the subject
+		// deleted; then the classroom looked up to evict the year's summary pages
+		assertStatements(7, "/subjects/delete/" + deleted.getId(), status().is3xxRedirection());
+	}
+
+	@Test
+	void attendanceReportLoadsEachTableOnce() throws Exception {
+		// The classroom for the cache keys, the page of students, the year's subjects with their classroom, and
+		// the page's counts
+		assertStatements(4, "/attendance/view/" + YEAR, status().isOk());
+	}
+
+	private Subject newSubject(String name) {
+		Subject s = new Subject();
+		s.setName(name);
+		s.setClassroom(classroom);
+		return s;
+	}
+
+	private void assertStatements(long expected, String url, ResultMatcher expectedStatus) throws Exception {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		mockMvc.perform(get(url)).andExpect(expectedStatus);
+		assertEquals(expected, statistics.getPrepareStatementCount(), "SQL statements prepared for " + url);
+	}
+}
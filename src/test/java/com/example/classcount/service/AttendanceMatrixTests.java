@@ -0,0 +1,120 @@
+package com.example.classcount.service;
+
+import com.example.classcount.entity.Student;
+import com.example.classcount.entity.Subject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static com.example.classcount.service.ReportFixtures.count;
+import static com.example.classcount.service.ReportFixtures.student;
+import static com.example.classcount.service.ReportFixtures.subject;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AttendanceMatrixTests {
+
+	@Test
+	void indexFindsIdsThatShareASlot() {
+		// Ids whose home slot is the same as id 1's, found by probing a table of the final size
+		AttendanceMatrix.IdIndex probe = new AttendanceMatrix.IdIndex(new long[8]);
+		List<Long> colliding = new ArrayList<>();
+		for (long id = 1; colliding.size() < 4; id++) {
+			if (probe.slot(id) == probe.slot(1)) {
+				colliding.add(id);
+			}
+		}
+		// Negative fillers cannot repeat one of the colliding ids
+		long[] ids = {colliding.get(0), -500, colliding.get(1), colliding.get(2), -7, colliding.get(3), -42, -43};
+
+		AttendanceMatrix.IdIndex index = new AttendanceMatrix.IdIndex(ids);
+
+		for (int i = 0; i < ids.length; i++) {
+			assertEquals(i, index.indexOf(ids[i]), "position of id " + ids[i]);
+		}
+	}
+
+	@Test
+	void indexReturnsMinusOneForMissingIds() {
+		long[] ids = LongStream.rangeClosed(1, 1000).toArray();
+		AttendanceMatrix.IdIndex index = new AttendanceMatrix.IdIndex(ids);
+
+		assertEquals(-1, index.indexOf(0));
+		assertEquals(-1, index.indexOf(1001));
+		assertEquals(-1, index.indexOf(-5));
+		assertEquals(-1, index.indexOf(Long.MAX_VALUE));
+		assertEquals(999, index.indexOf(1000));
+	}
+
+	@Test
+	void emptyIndexFindsNothing() {
+		AttendanceMatrix.IdIndex index = new AttendanceMatrix.IdIndex(new long[0]);
+
+		assertEquals(-1, index.indexOf(1));
+	}
+
+	@Test
+	void countsAreLaidOutByListPosition() {
+		List<Student> students = List.of(student(30), student(10), student(20));
+		List<Subject> subjects = List.of(subject(200), subject(100));
+
+		AttendanceMatrix matrix = AttendanceMatrix.of(students, subjects, List.of(
+				count(10, 100, 3, 4),
+				count(10, 200, 1, 2),
+				count(20, 200, 5, 5)));
+
+		assertEquals(1, matrix.present(1, 0));
+		assertEquals(2, matrix.total(1, 0));
+		assertEquals(3, matrix.present(1, 1));
+		assertEquals(4, matrix.total(1, 1));
+		assertEquals(5, matrix.present(2, 0));
+		assertEquals(0, matrix.total(2, 1));
+		assertEquals(0, matrix.total(0, 0));
+		assertEquals(0, matrix.total(0, 1));
+	}
+
+	@Test
+	void rowTotalsIncludeSubjectsOutsideTheList() {
+		List<Student> students = List.of(student(1), student(2));
+		List<Subject> subjects = List.of(subject(100));
+
+		AttendanceMatrix matrix = AttendanceMatrix.of(students, subjects, List.of(
+				count(1, 100, 2, 3),
+				count(1, 999, 4, 6),
+				count(2, 999, 1, 1)));
+
+		assertEquals(6, matrix.rowPresent(0));
+		assertEquals(9, matrix.rowTotal(0));
+		assertEquals(2, matrix.present(0, 0));
+		assertEquals(3, matrix.total(0, 0));
+		assertEquals(1, matrix.rowPresent(1));
+		assertEquals(1, matrix.rowTotal(1));
+		assertEquals(0, matrix.total(1, 0));
+	}
+
+	@Test
+	void countsOfStudentsOutsideTheListAreIgnored() {
+		AttendanceMatrix matrix = AttendanceMatrix.of(List.of(student(1)), List.of(subject(100)), List.of(
+				count(2, 100, 5, 5),
+				count(1, 100, 1, 1)));
+
+		assertEquals(1, matrix.present(0, 0));
+		assertEquals(1, matrix.rowTotal(0));
+	}
+
+	@Test
+	void emptyInputsGiveAnEmptyMatrix() {
+		AttendanceMatrix noCounts = AttendanceMatrix.of(List.of(student(1)), List.of(subject(100)), List.of());
+		assertEquals(0, noCounts.total(0, 0));
+		assertEquals(0, noCounts.rowTotal(0));
+
+		AttendanceMatrix noSubjects = AttendanceMatrix.of(List.of(student(1)), List.of(), List.of(count(1, 100, 1, 2)));
+		assertTrue(noSubjects.subjects().isEmpty());
+		assertEquals(2, noSubjects.rowTotal(0));
+
+		AttendanceMatrix nothing = AttendanceMatrix.of(List.of(), List.of(), List.of(count(1, 100, 1, 2)));
+		assertTrue(nothing.students().isEmpty());
+	}
+}
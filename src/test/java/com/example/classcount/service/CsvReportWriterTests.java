@@ -0,0 +1,100 @@
+package com.example.classcount.service;
+
+import com.example.classcount.dto.AttendanceCount;
+import com.example.classcount.entity.Student;
+import com.example.classcount.entity.Subject;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static com.example.classcount.service.ReportFixtures.count;
+import static com.example.classcount.service.ReportFixtures.student;
+import static com.example.classcount.service.ReportFixtures.subject;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvReportWriterTests {
+
+	private final CsvReportWriter csvWriter = new CsvReportWriter(new AttendanceFormatter());
+
+	@Test
+	void writesAHeaderAndARowPerStudent() throws IOException {
+		YearReport report = report("1st Year", List.of(student(1, "Asha")), List.of(subject(10, "Math"), subject(11, "Physics")),
+				List.of(count(1, 10, 7, 9), count(1, 11, 0, 1)));
+
+		assertEquals("Year,Student Name,Math,Physics,Overall %\r\n"
+				+ "1st Year,Asha,7/9,0/1,70.00%\r\n", csv(List.of(report)));
+	}
+
+	@Test
+	void quotesFieldsWithSeparatorsQuotesAndLineBreaks() throws IOException {
+		YearReport report = report("Year, \"A\"", List.of(student(1, "Smith, John"), student(2, "Line\nBreak")),
+				List.of(subject(10, "Say \"hi\"")), List.of());
+
+		assertEquals("Year,Student Name,\"Say \"\"hi\"\"\",Overall %\r\n"
+				+ "\"Year, \"\"A\"\"\",\"Smith, John\",0/0,0.00%\r\n"
+				+ "\"Year, \"\"A\"\"\",\"Line\nBreak\",0/0,0.00%\r\n", csv(List.of(report)));
+	}
+
+	@Test
+	void prefixesFieldsThatWouldRunAsFormulas() throws IOException {
+		YearReport report = report("1st Year",
+				List.of(student(1, "=1+1"), student(2, "+SUM(A1)"), student(3, "-2"), student(4, "@cmd"), student(5, "\tTab"),
+						student(6, "Jo-Ann")),
+				List.of(subject(10, "=HYPERLINK(\"http://x\",\"a,b\")")), List.of());
+
+		assertEquals("Year,Student Name,\"'=HYPERLINK(\"\"http://x\"\",\"\"a,b\"\")\",Overall %\r\n"
+				+ "1st Year,'=1+1,0/0,0.00%\r\n"
+				+ "1st Year,'+SUM(A1),0/0,0.00%\r\n"
+				+ "1st Year,'-2,0/0,0.00%\r\n"
+				+ "1st Year,'@cmd,0/0,0.00%\r\n"
+				+ "1st Year,'\tTab,0/0,0.00%\r\n"
+				+ "1st Year,Jo-Ann,0/0,0.00%\r\n", csv(List.of(report)));
+	}
+
+	@Test
+	void separatesYearsWithAnEmptyLine() throws IOException {
+		List<YearReport> reports = List.of(
+				report("1st Year", List.of(student(1, "Asha")), List.of(subject(10, "Math")), List.of(count(1, 10, 1, 2))),
+				report("2nd Year", List.of(student(2, "Ravi")), List.of(), List.of()));
+
+		assertEquals("Year,Student Name,Math,Overall %\r\n"
+				+ "1st Year,Asha,1/2,50.00%\r\n"
+				+ "\r\n"
+				+ "Year,Student Name,Overall %\r\n"
+				+ "2nd Year,Ravi,0.00%\r\n", csv(reports));
+	}
+
+	@Test
+	void gzipOutputDecompressesToTheCsv() throws IOException {
+		List<YearReport> reports = List.of(report("1st Year", List.of(student(1, "Ünal, Zoë"), student(2, "=1+1")),
+				List.of(subject(10, "Math")), List.of(count(1, 10, 3, 4))));
+		ByteArrayOutputStream plain = new ByteArrayOutputStream();
+		csvWriter.write(reports, plain);
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+		new GzipCsvReportWriter(csvWriter).write(reports, compressed);
+
+		byte[] bytes = compressed.toByteArray();
+		assertTrue(bytes.length > 2 && (bytes[0] & 0xff) == 0x1f && (bytes[1] & 0xff) == 0x8b, "gzip magic number");
+		try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+			assertArrayEquals(plain.toByteArray(), gzip.readAllBytes());
+		}
+	}
+
+	private String csv(List<YearReport> reports) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		csvWriter.write(reports, output);
+		return output.toString(StandardCharsets.UTF_8);
+	}
+
+	private static YearReport report(String year, List<Student> students, List<Subject> subjects, List<AttendanceCount> counts) {
+		return new YearReport(year, year, students, subjects, AttendanceMatrix.of(students, subjects, counts));
+	}
+}
@@ -0,0 +1,103 @@
+package com.example.classcount.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeysetIterableTests {
+
+	// Keys 1..rows, served a chunk at a time like the keyset queries, recording each "after" key asked for
+	private static final class Table {
+
+		private final int rows;
+		private final List<Long> queries = new ArrayList<>();
+
+		Table(int rows) {
+			this.rows = rows;
+		}
+
+		KeysetIterable<Long> iterable(int chunkSize) {
+			return new KeysetIterable<>(afterKey -> {
+				queries.add(afterKey);
+				return LongStream.rangeClosed(afterKey + 1, Math.min(afterKey + chunkSize, rows)).boxed().toList();
+			}, Long::longValue, chunkSize);
+		}
+	}
+
+	@Test
+	void emptyResultRunsOneQuery() {
+		Table table = new Table(0);
+
+		Iterator<Long> iterator = table.iterable(3).iterator();
+
+		assertFalse(iterator.hasNext());
+		assertFalse(iterator.hasNext());
+		assertEquals(List.of(0L), table.queries);
+		assertThrows(NoSuchElementException.class, iterator::next);
+	}
+
+	@Test
+	void readsEveryRowInKeyOrder() {
+		Table table = new Table(7);
+
+		assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), collect(table.iterable(3)));
+		// The short third chunk ends the iteration without another query
+		assertEquals(List.of(0L, 3L, 6L), table.queries);
+	}
+
+	@Test
+	void exactMultipleOfTheChunkSizeEndsOnAnEmptyChunk() {
+		Table table = new Table(6);
+
+		assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), collect(table.iterable(3)));
+		assertEquals(List.of(0L, 3L, 6L), table.queries);
+	}
+
+	@Test
+	void nextWorksWithoutHasNext() {
+		Table table = new Table(4);
+		Iterator<Long> iterator = table.iterable(2).iterator();
+
+		assertEquals(1L, iterator.next());
+		assertEquals(2L, iterator.next());
+		assertEquals(3L, iterator.next());
+		assertEquals(4L, iterator.next());
+		assertThrows(NoSuchElementException.class, iterator::next);
+		assertEquals(List.of(0L, 2L, 4L), table.queries);
+	}
+
+	@Test
+	void repeatedHasNextDoesNotSkipOrRequery() {
+		Table table = new Table(2);
+		Iterator<Long> iterator = table.iterable(2).iterator();
+
+		assertTrue(iterator.hasNext());
+		assertTrue(iterator.hasNext());
+		assertEquals(1L, iterator.next());
+		assertEquals(List.of(0L), table.queries);
+	}
+
+	@Test
+	void iteratingAgainRunsTheQueriesAgain() {
+		Table table = new Table(3);
+		KeysetIterable<Long> iterable = table.iterable(2);
+
+		assertEquals(collect(iterable), collect(iterable));
+		assertEquals(List.of(0L, 2L, 0L, 2L), table.queries);
+	}
+
+	private static List<Long> collect(Iterable<Long> iterable) {
+		List<Long> keys = new ArrayList<>();
+		iterable.forEach(keys::add);
+		return keys;
+	}
+}
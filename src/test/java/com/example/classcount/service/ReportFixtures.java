@@ -0,0 +1,40 @@
+package com.example.classcount.service;
+
+import com.example.classcount.dto.AttendanceCount;
+import com.example.classcount.entity.Student;
+import com.example.classcount.entity.Subject;
+
+/**
+ * Detached students, subjects and counts for the report tests, which need ids and names but no database.
+ */
+final class ReportFixtures {
+
+	private ReportFixtures() {
+	}
+
+	static Student student(long id) {
+		return student(id, "Student " + id);
+	}
+
+	static Student student(long id, String name) {
+		Student student = new Student();
+		student.setId(id);
+		student.setName(name);
+		return student;
+	}
+
+	static Subject subject(long id) {
+		return subject(id, "Subject " + id);
+	}
+
+	static Subject subject(long id, String name) {
+		Subject subject = new Subject();
+		subject.setId(id);
+		subject.setName(name);
+		return subject;
+	}
+
+	static AttendanceCount count(long studentId, long subjectId, long present, long total) {
+		return new AttendanceCount(studentId, subjectId, present, total);
+	}
+}
@@ -0,0 +1,100 @@
+package com.example.classcount.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TermCalendarTests {
+
+	private final TermCalendar halfYears = new TermCalendar(new int[]{1, 7});
+	private final TermCalendar threeTerms = new TermCalendar(new int[]{9, 2, 6});
+
+	@Test
+	void halfYearTermsSplitAtJuly() {
+		assertEquals(new Term(2026, 1, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 6, 30)), halfYears.termOf(LocalDate.of(2026, 1, 1)));
+		assertEquals(202601, halfYears.termOf(LocalDate.of(2026, 6, 30)).key());
+		assertEquals(new Term(2026, 2, LocalDate.of(2026, 7, 1), LocalDate.of(2026, 12, 31)), halfYears.termOf(LocalDate.of(2026, 7, 1)));
+		assertEquals(202602, halfYears.termOf(LocalDate.of(2026, 12, 31)).key());
+	}
+
+	@Test
+	void datesBeforeTheFirstStartMonthBelongToLastYearsLastTerm() {
+		assertEquals(new Term(2025, 3, LocalDate.of(2025, 9, 1), LocalDate.of(2026, 1, 31)), threeTerms.termOf(LocalDate.of(2026, 1, 15)));
+		assertEquals(202503, threeTerms.termOf(LocalDate.of(2025, 12, 31)).key());
+		assertEquals(new Term(2026, 1, LocalDate.of(2026, 2, 1), LocalDate.of(2026, 5, 31)), threeTerms.termOf(LocalDate.of(2026, 2, 1)));
+		assertEquals(202602, threeTerms.termOf(LocalDate.of(2026, 8, 31)).key());
+	}
+
+	@Test
+	void termsRunFromOneStartToTheDayBeforeTheNext() {
+		for (TermCalendar calendar : List.of(halfYears, threeTerms)) {
+			Term term = calendar.termOf(LocalDate.of(2024, 1, 1));
+			for (int i = 0; i < 12; i++) {
+				Term next = calendar.termOf(term.end().plusDays(1));
+				assertEquals(term.end().plusDays(1), next.start());
+				assertTrue(next.key() > term.key());
+				assertEquals(next, calendar.termByKey(next.key()));
+				term = next;
+			}
+		}
+	}
+
+	@Test
+	void recentTermsAreNewestFirstAndContiguous() {
+		List<Term> terms = threeTerms.recentTerms(4);
+
+		assertEquals(4, terms.size());
+		assertEquals(threeTerms.currentTerm(), terms.get(0));
+		for (int i = 1; i < terms.size(); i++) {
+			assertEquals(terms.get(i).end().plusDays(1), terms.get(i - 1).start());
+		}
+	}
+
+	@Test
+	void unknownTermKeysAreRejected() {
+		assertThrows(IllegalArgumentException.class, () -> halfYears.termByKey(202603));
+		assertThrows(IllegalArgumentException.class, () -> halfYears.termByKey(202600));
+		assertThrows(IllegalArgumentException.class, () -> threeTerms.termByKey(202604));
+	}
+
+	@Test
+	void startMonthsMustBeCalendarMonths() {
+		assertThrows(IllegalArgumentException.class, () -> new TermCalendar(new int[]{0, 7}));
+		assertThrows(IllegalArgumentException.class, () -> new TermCalendar(new int[]{1, 13}));
+		assertThrows(IllegalArgumentException.class, () -> new TermCalendar(new int[0]));
+	}
+
+	@Test
+	void periodsAreResolvedFromTermOrDates() {
+		AttendancePeriod term = threeTerms.resolvePeriod(202503, null, null);
+		assertEquals(LocalDate.of(2025, 9, 1), term.from());
+		assertEquals(LocalDate.of(2026, 1, 31), term.to());
+		assertEquals("2025 Term 3", term.label());
+
+		assertTrue(halfYears.resolvePeriod(null, null, null).isAllTime());
+		assertEquals(AttendancePeriod.between(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31)),
+				halfYears.resolvePeriod(null, LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31)));
+
+		assertThrows(IllegalArgumentException.class, () -> halfYears.resolvePeriod(null, LocalDate.of(2026, 3, 1), null));
+		assertThrows(IllegalArgumentException.class, () -> halfYears.resolvePeriod(null, null, LocalDate.of(2026, 3, 1)));
+		assertThrows(IllegalArgumentException.class,
+				() -> halfYears.resolvePeriod(null, LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 1)));
+	}
+
+	@Test
+	void wholeTermPeriodsAreRecognised() {
+		assertTrue(halfYears.coversWholeTerms(AttendancePeriod.between(LocalDate.of(2025, 7, 1), LocalDate.of(2026, 6, 30))));
+		assertTrue(threeTerms.coversWholeTerms(AttendancePeriod.between(LocalDate.of(2025, 9, 1), LocalDate.of(2026, 1, 31))));
+
+		assertFalse(halfYears.coversWholeTerms(AttendancePeriod.allTime()));
+		assertFalse(halfYears.coversWholeTerms(AttendancePeriod.between(LocalDate.of(2025, 7, 2), LocalDate.of(2026, 6, 30))));
+		assertFalse(halfYears.coversWholeTerms(AttendancePeriod.between(LocalDate.of(2025, 7, 1), LocalDate.of(2026, 6, 29))));
+		assertFalse(threeTerms.coversWholeTerms(AttendancePeriod.between(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31))));
+	}
+}
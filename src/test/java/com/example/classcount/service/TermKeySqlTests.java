@@ -0,0 +1,52 @@
+package com.example.classcount.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Evaluates {@link TermCalendar#termKeySql} in the configured database and checks it against
+ * {@link TermCalendar#termOf} on both sides of every month boundary. The counter rebuild and its mismatch
+ * check group raw attendance by the SQL expression, so any disagreement would silently misfile counts.
+ * Only SELECTs are run.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TermKeySqlTests {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void halfYearTermKeysMatch() {
+		assertSqlMatchesJava(new TermCalendar(new int[]{1, 7}));
+	}
+
+	@Test
+	void threeTermKeysMatch() {
+		assertSqlMatchesJava(new TermCalendar(new int[]{2, 6, 9}));
+	}
+
+	private void assertSqlMatchesJava(TermCalendar calendar) {
+		List<LocalDate> dates = new ArrayList<>();
+		for (LocalDate first = LocalDate.of(2023, 1, 1); first.getYear() < 2026; first = first.plusMonths(1)) {
+			dates.add(first);
+			dates.add(first.minusDays(1));
+		}
+		dates.add(LocalDate.of(2024, 2, 29));
+
+		for (LocalDate date : dates) {
+			Integer sqlKey = jdbcTemplate.queryForObject(
+					"SELECT " + calendar.termKeySql("DATE '" + date + "'"), Integer.class);
+			assertEquals(calendar.termOf(date).key(), sqlKey, "term key of " + date);
+		}
+	}
+}
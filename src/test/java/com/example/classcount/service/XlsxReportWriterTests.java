@@ -0,0 +1,47 @@
+package com.example.classcount.service;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class XlsxReportWriterTests {
+
+	private static final String LONG_YEAR = "Postgraduate Diploma Year One Section";
+
+	@Test
+	void sheetNamesAreMadeUniqueIgnoringCaseAndLength() {
+		Set<String> used = new HashSet<>();
+
+		assertEquals("1st Year", XlsxReportWriter.uniqueSheetName("1st Year", used));
+		assertEquals("1ST YEAR (2)", XlsxReportWriter.uniqueSheetName("1ST YEAR", used));
+		assertEquals("1st year (3)", XlsxReportWriter.uniqueSheetName("1st year", used));
+		assertEquals("Postgraduate Diploma Year One S", XlsxReportWriter.uniqueSheetName(LONG_YEAR, used));
+		assertEquals("Postgraduate Diploma Year O (2)", XlsxReportWriter.uniqueSheetName(LONG_YEAR + " B", used));
+	}
+
+	@Test
+	void collidingTitlesAllGetASheet() throws Exception {
+		List<YearReport> reports = List.of(report("1st Year"), report("1ST YEAR"), report(LONG_YEAR), report(LONG_YEAR + " B"));
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		new XlsxReportWriter(new AttendanceFormatter()).write(reports, output);
+
+		try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(output.toByteArray()))) {
+			assertEquals(4, workbook.getNumberOfSheets());
+			assertEquals("1ST YEAR (2)", workbook.getSheetName(1));
+			assertEquals("Postgraduate Diploma Year O (2)", workbook.getSheetName(3));
+			assertEquals("Student Name", workbook.getSheetAt(3).getRow(0).getCell(0).getStringCellValue());
+		}
+	}
+
+	private static YearReport report(String year) {
+		return new YearReport(year, year, List.of(), List.of(), AttendanceMatrix.of(List.of(), List.of(), List.of()));
+	}
+}